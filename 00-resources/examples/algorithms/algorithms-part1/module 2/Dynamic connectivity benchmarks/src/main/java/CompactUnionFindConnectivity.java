@@ -0,0 +1,20 @@
+import benchmarks.Connectivity;
+
+// Adapter CompactUnionFind (upakowane bity, ranga + kompresja) dla benchmarków.
+public class CompactUnionFindConnectivity implements Connectivity {
+    private final CompactUnionFind uf;
+
+    public CompactUnionFindConnectivity(int n) {
+        uf = new CompactUnionFind(n);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+
+    @Override
+    public int find(int p) {
+        return uf.find(p);
+    }
+}
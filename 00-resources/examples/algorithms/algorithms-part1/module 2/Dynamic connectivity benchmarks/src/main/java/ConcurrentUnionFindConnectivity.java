@@ -0,0 +1,20 @@
+import benchmarks.Connectivity;
+
+// Adapter ConcurrentUnionFind - koszt CAS-ów przy pracy jednowątkowej.
+public class ConcurrentUnionFindConnectivity implements Connectivity {
+    private final ConcurrentUnionFind uf;
+
+    public ConcurrentUnionFindConnectivity(int n) {
+        uf = new ConcurrentUnionFind(n);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+
+    @Override
+    public int find(int p) {
+        return uf.find(p);
+    }
+}
@@ -0,0 +1,20 @@
+import benchmarks.Connectivity;
+
+// Adapter RollbackUnionFind - ważenie według rangi bez kompresji ścieżki.
+public class RollbackUnionFindConnectivity implements Connectivity {
+    private final RollbackUnionFind uf;
+
+    public RollbackUnionFindConnectivity(int n) {
+        uf = new RollbackUnionFind(n);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+
+    @Override
+    public int find(int p) {
+        return uf.find(p);
+    }
+}
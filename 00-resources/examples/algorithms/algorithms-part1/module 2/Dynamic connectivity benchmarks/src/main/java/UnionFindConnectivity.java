@@ -0,0 +1,22 @@
+import benchmarks.Connectivity;
+
+// Adapter UnionFind (ważenie + kompresja) dla benchmarków.
+// Testowane klasy leżą w pakiecie domyślnym, a JMH wymaga benchmarków w pakiecie,
+// więc warianty są tworzone przez benchmarks.Variant po nazwie klasy.
+public class UnionFindConnectivity implements Connectivity {
+    private final UnionFind uf;
+
+    public UnionFindConnectivity(int n) {
+        uf = new UnionFind(n);
+    }
+
+    @Override
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+
+    @Override
+    public int find(int p) {
+        return uf.find(p);
+    }
+}
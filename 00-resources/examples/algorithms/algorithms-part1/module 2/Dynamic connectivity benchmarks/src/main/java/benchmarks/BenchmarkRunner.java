@@ -0,0 +1,62 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatFactory;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// Uruchamia UnionBenchmark i FindBenchmark dla wszystkich wariantów, pomijając rozmiary
+// powyżej Variant.maxN, z profilerem GC (gc.alloc.rate.norm = bajty alokowane na operację,
+// w UnionBenchmark operacją jest pełny przebieg po krawędziach).
+// Wyniki trafiają do jednego pliku JSON, który można porównać z poprzednią wersją.
+//
+// java -cp target/benchmarks.jar benchmarks.BenchmarkRunner [plik.json] [rozmiary, np. 1000,1000000]
+public class BenchmarkRunner {
+    private static final int[] SIZES = {1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
+
+    public static void main(String[] args) throws RunnerException, FileNotFoundException {
+        String resultFile = args.length > 0 ? args[0] : "jmh-result.json";
+        int[] sizes = args.length > 1 ? parseSizes(args[1]) : SIZES;
+
+        List<RunResult> results = new ArrayList<>();
+        for (Variant variant : Variant.values()) {
+            List<String> feasible = new ArrayList<>();
+            for (int n : sizes) {
+                if (n <= variant.maxN()) feasible.add(String.valueOf(n));
+            }
+            if (feasible.isEmpty()) continue;
+
+            Options options = new OptionsBuilder()
+                    .include(UnionBenchmark.class.getSimpleName())
+                    .include(FindBenchmark.class.getSimpleName())
+                    .param("variant", variant.name())
+                    .param("n", feasible.toArray(new String[0]))
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            results.addAll(new Runner(options).run());
+        }
+
+        try (PrintStream out = new PrintStream(resultFile)) {
+            ResultFormatFactory.getInstance(ResultFormatType.JSON, out).writeOut(results);
+        }
+        System.out.println("Wyniki zapisane w " + resultFile);
+    }
+
+    private static int[] parseSizes(String list) {
+        String[] parts = list.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,31 @@
+package benchmarks;
+
+// Quick-union z samą kompresją ścieżki (path halving), bez ważenia.
+public class CompressedQuickUnion implements Connectivity {
+    private final int[] parent;
+
+    public CompressedQuickUnion(int n) {
+        parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP != rootQ) {
+            parent[rootP] = rootQ;
+        }
+    }
+
+    @Override
+    public int find(int p) {
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];
+            p = parent[p];
+        }
+        return p;
+    }
+}
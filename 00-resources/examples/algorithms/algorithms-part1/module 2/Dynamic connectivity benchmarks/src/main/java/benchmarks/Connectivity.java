@@ -0,0 +1,10 @@
+package benchmarks;
+
+// Wspólny interfejs porównywanych wariantów union-find.
+// Każdy fork JMH używa tylko jednej implementacji, więc wywołania są monomorficzne
+// i JIT inline'uje je tak samo jak bezpośrednie wywołanie klasy.
+public interface Connectivity {
+    void union(int p, int q);
+
+    int find(int p);
+}
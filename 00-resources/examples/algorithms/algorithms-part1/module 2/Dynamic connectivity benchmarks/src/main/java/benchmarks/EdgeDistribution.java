@@ -0,0 +1,45 @@
+package benchmarks;
+
+import java.util.SplittableRandom;
+
+// Rozkłady krawędzi używane w benchmarkach.
+public enum EdgeDistribution {
+    // końce krawędzi losowane jednostajnie
+    RANDOM,
+    // krawędzie (i, i+1) po kolei - quick-union bez ważenia podpina korzeń i pod i+1,
+    // więc powstaje łańcuch 0 -> 1 -> ... -> n-1 o głębokości n-1
+    CHAIN,
+    // końce losowane log-jednostajnie (gęstość ~ 1/x): kilka elementów-hubów ma większość krawędzi
+    POWER_LAW;
+
+    // zwraca {ps, qs} z podaną liczbą krawędzi nad elementami 0..n-1
+    public int[][] generate(int n, int edges, long seed) {
+        int[] ps = new int[edges];
+        int[] qs = new int[edges];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < edges; i++) {
+            switch (this) {
+                case RANDOM:
+                    ps[i] = random.nextInt(n);
+                    qs[i] = random.nextInt(n);
+                    break;
+                case CHAIN:
+                    ps[i] = i % (n - 1);
+                    qs[i] = ps[i] + 1;
+                    break;
+                case POWER_LAW:
+                    ps[i] = powerLaw(random, n);
+                    qs[i] = powerLaw(random, n);
+                    break;
+                default:
+                    throw new AssertionError(this);
+            }
+        }
+        return new int[][] {ps, qs};
+    }
+
+    private static int powerLaw(SplittableRandom random, int n) {
+        int value = (int) Math.pow(n, random.nextDouble()) - 1;
+        return Math.min(n - 1, Math.max(0, value));
+    }
+}
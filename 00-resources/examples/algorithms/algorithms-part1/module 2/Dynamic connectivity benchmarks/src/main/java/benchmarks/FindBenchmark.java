@@ -0,0 +1,71 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Opóźnienie find na strukturze zbudowanej z pełnego zestawu krawędzi.
+// Tryb SampleTime daje rozkład czasów (p50, p90, p99, p99.99, max), nie tylko średnią.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FindBenchmark {
+    private static final int QUERIES = 1 << 20;
+
+    @Param({"QUICK_FIND", "QUICK_UNION", "COMPRESSED", "WEIGHTED", "WEIGHTED_COMPRESSED", "COMPACT", "CONCURRENT"})
+    public Variant variant;
+
+    @Param({"RANDOM", "CHAIN", "POWER_LAW"})
+    public EdgeDistribution distribution;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int n;
+
+    private int[] queries;
+    private Connectivity uf;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void buildStructure() {
+        int[][] edges = distribution.generate(n, Math.min(n, UnionBenchmark.MAX_EDGES), 42);
+        uf = variant.create(n);
+        for (int i = 0; i < edges[0].length; i++) {
+            uf.union(edges[0][i], edges[1][i]);
+        }
+        // CHAIN ma dawać quick-union najgorszy przypadek - inaczej pomiar nic nie mówi
+        if (distribution == EdgeDistribution.CHAIN && uf instanceof QuickUnion) {
+            int depth = ((QuickUnion) uf).depth(0);
+            if (depth != n - 1) {
+                throw new IllegalStateException("CHAIN zbudował drzewo o głębokości " + depth + " zamiast " + (n - 1));
+            }
+        }
+
+        queries = new int[QUERIES];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = random.nextInt(n);
+        }
+    }
+
+    @Benchmark
+    public int find() {
+        int i = cursor;
+        cursor = (i + 1) & (QUERIES - 1);
+        return uf.find(queries[i]);
+    }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+// Mierzy zajętość sterty przez każdy wariant: różnica zużycia sterty po GC przed i po
+// utworzeniu struktury z n elementami. Razem z wynikami FindBenchmark/UnionBenchmark
+// daje kompromis pamięć/opóźnienie, np. COMPACT względem WEIGHTED_COMPRESSED.
+//
+// java -Xmx8g -cp target/benchmarks.jar benchmarks.MemoryFootprint [n] [warianty, np. COMPACT,WEIGHTED_COMPRESSED]
+public class MemoryFootprint {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Variant[] variants = Variant.values();
+        if (args.length > 1) {
+            String[] names = args[1].split(",");
+            variants = new Variant[names.length];
+            for (int i = 0; i < names.length; i++) {
+                variants[i] = Variant.valueOf(names[i].trim());
+            }
+        }
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.printf("%-20s %14s %10s%n", "wariant", "bajty", "B/element");
+        for (Variant variant : variants) {
+            if (n > variant.maxN()) continue;
+            long before = usedHeapAfterGc(memory);
+            Connectivity uf = variant.create(n);
+            long after = usedHeapAfterGc(memory);
+            System.out.printf("%-20s %14d %10.2f%n", variant, after - before, (double) (after - before) / n);
+            // struktura musi dożyć do drugiego pomiaru
+            if (uf.find(0) < 0) throw new AssertionError();
+        }
+    }
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,28 @@
+package benchmarks;
+
+// Quick-find: find w O(1), ale union przepisuje cały zbiór - O(n) na każde połączenie.
+public class QuickFind implements Connectivity {
+    private final int[] id; // identyfikator zbioru dla każdego elementu
+
+    public QuickFind(int n) {
+        id = new int[n];
+        for (int i = 0; i < n; i++) {
+            id[i] = i;
+        }
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int idP = id[p];
+        int idQ = id[q];
+        if (idP == idQ) return;
+        for (int i = 0; i < id.length; i++) {
+            if (id[i] == idP) id[i] = idQ;
+        }
+    }
+
+    @Override
+    public int find(int p) {
+        return id[p];
+    }
+}
@@ -0,0 +1,40 @@
+package benchmarks;
+
+// Quick-union bez ważenia i bez kompresji - drzewa mogą zdegenerować się do łańcucha.
+public class QuickUnion implements Connectivity {
+    private final int[] parent;
+
+    public QuickUnion(int n) {
+        parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    @Override
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP != rootQ) {
+            parent[rootP] = rootQ;
+        }
+    }
+
+    @Override
+    public int find(int p) {
+        while (p != parent[p]) {
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // liczba krawędzi od p do korzenia
+    int depth(int p) {
+        int depth = 0;
+        while (p != parent[p]) {
+            p = parent[p];
+            depth++;
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,65 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Czas union: jedno wywołanie to pełny przebieg po wszystkich krawędziach na świeżej strukturze.
+// Gdyby krawędzie krążyły w kółko po jednej strukturze, po pierwszym przebiegu prawie każde
+// union łączyłoby elementy już połączone, czyli mierzylibyśmy find na płaskim drzewie.
+// Wynik to czas całego przebiegu; na jedno union przypada wynik / min(n, MAX_EDGES).
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class UnionBenchmark {
+    // najwyżej tyle krawędzi trzymamy w pamięci
+    static final int MAX_EDGES = 1 << 24;
+
+    @Param({"QUICK_FIND", "QUICK_UNION", "COMPRESSED", "WEIGHTED", "WEIGHTED_COMPRESSED", "COMPACT", "CONCURRENT"})
+    public Variant variant;
+
+    @Param({"RANDOM", "CHAIN", "POWER_LAW"})
+    public EdgeDistribution distribution;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000", "100000000"})
+    public int n;
+
+    private int[] ps;
+    private int[] qs;
+    private Connectivity uf;
+
+    @Setup(Level.Trial)
+    public void generateEdges() {
+        int[][] edges = distribution.generate(n, Math.min(n, MAX_EDGES), 42);
+        ps = edges[0];
+        qs = edges[1];
+    }
+
+    // w SingleShotTime iteracja to jedno wywołanie, więc każdy przebieg dostaje świeżą strukturę
+    @Setup(Level.Iteration)
+    public void resetStructure() {
+        uf = variant.create(n);
+    }
+
+    @Benchmark
+    public Connectivity union() {
+        for (int i = 0; i < ps.length; i++) {
+            uf.union(ps[i], qs[i]);
+        }
+        return uf;
+    }
+}
@@ -0,0 +1,61 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+
+// Porównywane warianty union-find.
+// maxN to największy rozmiar, przy którym pomiar kończy się w rozsądnym czasie -
+// warianty kwadratowe przy n = 10^8 liczyłyby się godzinami.
+public enum Variant {
+    QUICK_FIND(100_000),
+    QUICK_UNION(100_000),
+    COMPRESSED(100_000_000),
+    WEIGHTED(100_000_000),
+    WEIGHTED_COMPRESSED(100_000_000),
+    COMPACT(100_000_000),
+    CONCURRENT(100_000_000);
+
+    private final int maxN;
+
+    Variant(int maxN) {
+        this.maxN = maxN;
+    }
+
+    public int maxN() {
+        return maxN;
+    }
+
+    public Connectivity create(int n) {
+        if (n > maxN) {
+            throw new IllegalArgumentException(this + " jest mierzony tylko do n = " + maxN + ", podano " + n);
+        }
+        switch (this) {
+            case QUICK_FIND:
+                return new QuickFind(n);
+            case QUICK_UNION:
+                return new QuickUnion(n);
+            case COMPRESSED:
+                return new CompressedQuickUnion(n);
+            case WEIGHTED:
+                return adapter("RollbackUnionFindConnectivity", n);
+            case WEIGHTED_COMPRESSED:
+                return adapter("UnionFindConnectivity", n);
+            case COMPACT:
+                return adapter("CompactUnionFindConnectivity", n);
+            case CONCURRENT:
+                return adapter("ConcurrentUnionFindConnectivity", n);
+            default:
+                throw new AssertionError(this);
+        }
+    }
+
+    // adaptery leżą w pakiecie domyślnym razem z testowanymi klasami, więc sięgamy po nie refleksją
+    private static Connectivity adapter(String className, int n) {
+        try {
+            return (Connectivity) Class.forName(className).getConstructor(int.class).newInstance(n);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("nie udało się utworzyć " + className, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("nie udało się utworzyć " + className, e);
+        }
+    }
+}
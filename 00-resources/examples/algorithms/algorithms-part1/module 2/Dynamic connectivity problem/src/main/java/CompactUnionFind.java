@@ -0,0 +1,116 @@
+// UnionFind w zwartej reprezentacji - dla dużych n, gdy ogranicza nas pamięć, a nie CPU.
+//
+// Każdy element zajmuje ceil(log2 n) bitów na rodzica i 5 bitów na rangę (ranga <= log2 n < 32),
+// a wpisy są upakowane jeden za drugim w tablicy long[]. Przy n = 500M to 34 bity na element
+// zamiast 64 (int parent + int rank/size), czyli ok. 47% mniej pamięci. Ceną są przesunięcia
+// i maski przy każdym odczycie oraz zapisie.
+public class CompactUnionFind {
+    private static final int RANK_BITS = 5;
+
+    private final long[] words;      // upakowane wpisy [ranga | rodzic]
+    private final int parentBits;    // ceil(log2 n)
+    private final int entryBits;     // parentBits + RANK_BITS
+    private final long parentMask;
+    private final long entryMask;
+    private final int n;
+    private int count;               // liczba rozłącznych zbiorów
+
+    public CompactUnionFind(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("liczba elementów nie może być ujemna: " + n);
+        }
+        this.n = n;
+        this.count = n;
+        this.parentBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(Math.max(0, n - 1)));
+        this.entryBits = parentBits + RANK_BITS;
+        this.parentMask = (1L << parentBits) - 1;
+        this.entryMask = (1L << entryBits) - 1;
+        this.words = new long[(int) (((long) n * entryBits + 63) >>> 6)];
+
+        for (int i = 0; i < n; i++) {
+            set(i, i); // ranga 0, każdy element jest swoim korzeniem
+        }
+    }
+
+    // łączy dwa elementy
+    public void union(int p, int q) {
+        if (p < 0 || p >= n) return;
+        else if (q < 0 || q >= n) return;
+
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        long entryP = get(rootP);
+        long entryQ = get(rootQ);
+        int rankP = (int) (entryP >>> parentBits);
+        int rankQ = (int) (entryQ >>> parentBits);
+        // łączenie według rangi: płytsze drzewo podpinamy pod głębsze
+        if (rankP < rankQ) {
+            set(rootP, pack(rankP, rootQ));
+        } else {
+            set(rootQ, pack(rankQ, rootP));
+            if (rankP == rankQ) {
+                set(rootP, pack(rankP + 1, rootP));
+            }
+        }
+        count--;
+    }
+
+    // znajduje reprezentanta dla danego elementu
+    public int find(int p) {
+        while (true) {
+            long entry = get(p);
+            int parent = (int) (entry & parentMask);
+            if (parent == p) return p;
+
+            int grandparent = (int) (get(parent) & parentMask);
+            if (grandparent != parent) {
+                set(p, (entry & ~parentMask) | grandparent); // kompresja ścieżki (path halving)
+            }
+            p = grandparent;
+        }
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public int getCount() {
+        return count;
+    }
+
+    // liczba bitów na element (rodzic + ranga)
+    public int getBitsPerElement() {
+        return entryBits;
+    }
+
+    private long pack(int rank, int parent) {
+        return ((long) rank << parentBits) | parent;
+    }
+
+    // odczytuje wpis i, który może zaczynać się w jednym słowie i kończyć w następnym
+    private long get(int i) {
+        long bit = (long) i * entryBits;
+        int word = (int) (bit >>> 6);
+        int offset = (int) (bit & 63);
+        long value = words[word] >>> offset;
+        if (offset + entryBits > 64) {
+            value |= words[word + 1] << (64 - offset);
+        }
+        return value & entryMask;
+    }
+
+    private void set(int i, long entry) {
+        long bit = (long) i * entryBits;
+        int word = (int) (bit >>> 6);
+        int offset = (int) (bit & 63);
+        words[word] = (words[word] & ~(entryMask << offset)) | (entry << offset);
+        if (offset + entryBits > 64) {
+            int written = 64 - offset;
+            words[word + 1] = (words[word + 1] & ~(entryMask >>> written)) | (entry >>> written);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Wersja UnionFind bez blokad - union/find/isConnected można wołać z wielu wątków naraz.
+//
+// Każdy element to jedno słowo 64-bitowe: [ranga (32 bity) | rodzic (32 bity)].
+// Rodzic i ranga zmieniają się jednym CAS-em, więc podpięcie korzenia x pod y
+// udaje się tylko wtedy, gdy x nadal jest korzeniem o randze, którą odczytaliśmy.
+// Ranga korzenia tylko rośnie, a ranga elementu, który przestał być korzeniem,
+// już się nie zmienia - dzięki temu porządek (ranga, indeks) wyklucza cykle.
+public class ConcurrentUnionFind {
+    private static final long PARENT_MASK = 0xFFFFFFFFL;
+
+    private final AtomicLongArray nodes; // [ranga | rodzic] dla każdego elementu
+    private final LongAdder links;       // liczba udanych połączeń
+    private final int n;
+
+    public ConcurrentUnionFind(int n) {
+        this.n = n;
+        this.nodes = new AtomicLongArray(n);
+        this.links = new LongAdder();
+
+        for (int i = 0; i < n; i++) {
+            nodes.lazySet(i, pack(0, i)); // ranga 0, każdy element jest swoim korzeniem
+        }
+    }
+
+    // łączy dwa elementy
+    public void union(int p, int q) {
+        if (p < 0 || p >= n) return;
+        else if (q < 0 || q >= n) return;
+
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) { // już w tym samym zbiorze
+                onUnion(false);
+                return;
+            }
+
+            long wordP = nodes.get(rootP);
+            long wordQ = nodes.get(rootQ);
+            // między find a get ktoś mógł podpiąć korzeń - zaczynamy od nowa
+            if (parentOf(wordP) != rootP || parentOf(wordQ) != rootQ) continue;
+
+            int rankP = rankOf(wordP);
+            int rankQ = rankOf(wordQ);
+
+            // podpinamy "mniejszy" korzeń wg porządku (ranga, indeks)
+            if (rankP > rankQ || (rankP == rankQ && rootP > rootQ)) {
+                int root = rootP; rootP = rootQ; rootQ = root;
+                long word = wordP; wordP = wordQ; wordQ = word;
+                int rank = rankP; rankP = rankQ; rankQ = rank;
+            }
+
+            if (!nodes.compareAndSet(rootP, wordP, pack(rankP, rootQ))) continue;
+            links.increment();
+
+            if (rankP == rankQ) {
+                // podbicie rangi nowego korzenia; jeśli CAS się nie uda, rootQ zmienił się
+                // w międzyczasie i ranga jest tylko heurystyką - poprawność nie cierpi
+                nodes.compareAndSet(rootQ, wordQ, pack(rankQ + 1, rootQ));
+            }
+            onUnion(true);
+            return;
+        }
+    }
+
+    // znajduje reprezentanta dla danego elementu
+    public int find(int p) {
+        int hops = 0;
+        int writes = 0;
+        while (true) {
+            long word = nodes.get(p);
+            int parent = parentOf(word);
+            if (parent == p) {
+                onFind(hops, writes);
+                return p;
+            }
+
+            int grandparent = parentOf(nodes.get(parent));
+            if (grandparent != parent) {
+                // optymistyczna kompresja (path halving) - nieudany CAS oznacza tylko,
+                // że ktoś inny już skrócił tę ścieżkę
+                if (nodes.compareAndSet(p, word, pack(rankOf(word), grandparent))) writes++;
+            }
+            p = grandparent;
+            hops++;
+        }
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return true;
+            // różne korzenie są wiarygodną odpowiedzią tylko, jeśli rootP nadal jest korzeniem
+            if (parentOf(nodes.get(rootP)) == rootP) return false;
+        }
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public int getCount() {
+        return n - (int) links.sum();
+    }
+
+    // haki dla InstrumentedConcurrentUnionFind - tutaj puste, więc JIT je usuwa
+    protected void onFind(int hops, int writes) {
+    }
+
+    protected void onUnion(boolean merged) {
+    }
+
+    // rodzic elementu w chwili odczytu - do analizy kształtu drzew
+    int parentOf(int p) {
+        return parentOf(nodes.get(p));
+    }
+
+    int size() {
+        return n;
+    }
+
+    private static long pack(int rank, int parent) {
+        return ((long) rank << 32) | (parent & PARENT_MASK);
+    }
+
+    private static int parentOf(long word) {
+        return (int) word;
+    }
+
+    private static int rankOf(long word) {
+        return (int) (word >>> 32);
+    }
+}
@@ -0,0 +1,217 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Narzędzie liczące spójne składowe grafu zapisanego w pliku z listą krawędzi.
+//
+// Plik jest mapowany do pamięci kawałkami, a liczby są parsowane wprost z bajtów
+// MappedByteBuffer - bez Scannera, BufferedReadera i bez tworzenia obiektów String.
+// Krawędzie trafiają do UnionFind paczkami przez unionAll.
+//
+// Formaty wejścia:
+//   text   - wiersze "p q" (dowolne białe znaki, wiersze zaczynające się od # są pomijane)
+//   binary - pary liczb int32 little endian: p0 q0 p1 q1 ...
+//
+// Użycie:
+//   java ConnectedComponents <n> <plik> [text|binary] [plik-wyjściowy-z-numerami-składowych]
+public class ConnectedComponents {
+    private static final long CHUNK_BYTES = 1L << 28;   // 256 MiB mapowane naraz
+    private static final int BATCH_EDGES = 1 << 20;     // tyle krawędzi przekazujemy do unionAll
+
+    private final UnionFind uf;
+    private final int[] ps = new int [BATCH_EDGES];
+    private final int[] qs = new int [BATCH_EDGES];
+    private int batched;
+    private long edges;
+
+    public ConnectedComponents(int n) {
+        uf = new UnionFind(n);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("użycie: java ConnectedComponents <n> <plik> [text|binary] [plik-wyjściowy]");
+            System.exit(2);
+        }
+        int n = Integer.parseInt(args[0]);
+        Path input = Paths.get(args[1]);
+        boolean binary = args.length > 2 && args[2].equals("binary");
+
+        ConnectedComponents cc = new ConnectedComponents(n);
+        long start = System.nanoTime();
+        if (binary) {
+            cc.readBinary(input);
+        } else {
+            cc.readText(input);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("krawędzie: %d, składowe: %d, czas: %.1f ms%n",
+                cc.getEdgeCount(), cc.getUnionFind().getCount(), elapsed / 1e6);
+        long[] histogram = cc.sizeHistogram();
+        System.out.println("rozmiar składowej (od..do) -> liczba składowych");
+        for (int bucket = 0; bucket < histogram.length; bucket++) {
+            if (histogram[bucket] == 0) continue;
+            System.out.printf("%d..%d -> %d%n", 1L << bucket, (1L << (bucket + 1)) - 1, histogram[bucket]);
+        }
+
+        if (args.length > 3) {
+            cc.writeComponentIds(Paths.get(args[3]));
+        }
+    }
+
+    public UnionFind getUnionFind() {
+        return uf;
+    }
+
+    // zwraca liczbę wczytanych krawędzi
+    public long getEdgeCount() {
+        return edges;
+    }
+
+    // wczytuje wiersze "p q" z pliku tekstowego
+    public void readText(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            // liczba przechodząca przez granicę kawałka jest dokańczana w następnym
+            long value = 0;
+            boolean inNumber = false;
+            boolean inComment = false;
+            int pending = -1; // p czekające na q albo -1
+            while (position < size) {
+                long length = Math.min(CHUNK_BYTES, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++) {
+                    byte b = buffer.get(i);
+                    if (inComment) {
+                        if (b != '\n') continue;
+                        // koniec wiersza kończy komentarz i idzie dalej jak zwykły biały znak,
+                        // żeby "1 # x" nie sklejało się z liczbą z następnego wiersza
+                        inComment = false;
+                    }
+                    if (b >= '0' && b <= '9') {
+                        value = value * 10 + (b - '0');
+                        if (value > Integer.MAX_VALUE) {
+                            throw new IOException("liczba poza zakresem int w bajcie " + (position + i));
+                        }
+                        inNumber = true;
+                    } else if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                        if (inNumber) {
+                            pending = accept(pending, (int) value);
+                            value = 0;
+                            inNumber = false;
+                        }
+                        if (b == '\n' && pending >= 0) {
+                            throw new IOException("wiersz z jedną liczbą przed bajtem " + (position + i));
+                        }
+                    } else if (b == '#' && !inNumber) {
+                        inComment = true;
+                    } else {
+                        throw new IOException("nieoczekiwany znak '" + (char) b + "' w bajcie " + (position + i));
+                    }
+                }
+                position += length;
+            }
+            if (inNumber) {
+                pending = accept(pending, (int) value);
+            }
+            if (pending >= 0) {
+                throw new IOException("plik kończy się niepełną krawędzią");
+            }
+            flush();
+        }
+    }
+
+    // wczytuje pary int32 little endian
+    public void readBinary(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % 8 != 0) {
+                throw new IOException("rozmiar pliku binarnego musi być wielokrotnością 8 bajtów: " + size);
+            }
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(CHUNK_BYTES, size - position); // CHUNK_BYTES jest wielokrotnością 8
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                for (int i = 0; i < length; i += 8) {
+                    ps[batched] = buffer.getInt(i);
+                    qs[batched] = buffer.getInt(i + 4);
+                    if (++batched == BATCH_EDGES) flush();
+                }
+                position += length;
+            }
+            flush();
+        }
+    }
+
+    // histogram rozmiarów składowych: kubełek k zlicza składowe o rozmiarze z [2^k, 2^(k+1))
+    public long[] sizeHistogram() {
+        long[] histogram = new long[32];
+        UnionFind.Components components = uf.components();
+        for (int c = 0; c < components.getCount(); c++) {
+            histogram[31 - Integer.numberOfLeadingZeros(components.size(c))]++;
+        }
+        return histogram;
+    }
+
+    // zapisuje dla każdego elementu numer jego składowej jako int32 little endian
+    public void writeComponentIds(Path file) throws IOException {
+        UnionFind.Components components = uf.components();
+        int[] offsets = components.getOffsets();
+        int[] members = components.getMembers();
+        int[] componentOf = new int [members.length];
+        for (int c = 0; c < components.getCount(); c++) {
+            for (int i = offsets[c]; i < offsets[c + 1]; i++) {
+                componentOf[members[i]] = c;
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            for (int id : componentOf) {
+                if (!buffer.hasRemaining()) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(id);
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private int accept(int pending, int value) throws IOException {
+        if (pending < 0) return value;
+        ps[batched] = pending;
+        qs[batched] = value;
+        if (++batched == BATCH_EDGES) flush();
+        return -1;
+    }
+
+    private void flush() {
+        if (batched == 0) return;
+        if (batched == BATCH_EDGES) {
+            uf.unionAll(ps, qs);
+        } else {
+            // ostatnia, niepełna paczka - kopiujemy tylko raz na cały plik
+            uf.unionAll(Arrays.copyOf(ps, batched), Arrays.copyOf(qs, batched));
+        }
+        edges += batched;
+        batched = 0;
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
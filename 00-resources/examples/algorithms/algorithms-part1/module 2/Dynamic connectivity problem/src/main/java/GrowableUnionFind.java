@@ -0,0 +1,110 @@
+import java.util.Arrays;
+
+// UnionFind, do którego elementy dokładamy w trakcie działania.
+// Tablice rosną dwukrotnie, gdy brakuje miejsca, więc add() kosztuje zamortyzowane O(1)
+// i nie trzeba z góry znać liczby elementów ani przebudowywać struktury.
+public class GrowableUnionFind {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // wynik union - zamiast cichego pomijania błędnych identyfikatorów
+    public enum UnionResult {
+        MERGED,            // dwa różne zbiory zostały połączone
+        ALREADY_CONNECTED, // elementy już były w tym samym zbiorze
+        UNKNOWN_ELEMENT    // p lub q nie zostało dodane przez add()
+    }
+
+    private int[] parent;  // tablica reprezentująca połączenia (zajęte pierwsze n pozycji)
+    private int[] size;    // rozmiar drzewa zakorzenionego w danym elemencie
+    private int n;         // liczba dodanych elementów
+    private int count;     // liczba rozłącznych zbiorów
+
+    public GrowableUnionFind() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GrowableUnionFind(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("pojemność nie może być ujemna: " + initialCapacity);
+        }
+        parent = new int [initialCapacity];
+        size = new int [initialCapacity];
+    }
+
+    // dodaje nowy, samodzielny element i zwraca jego identyfikator
+    public int add() {
+        if (n == parent.length) {
+            grow();
+        }
+        int id = n++;
+        parent[id] = id;
+        size[id] = 1;
+        count++;
+        return id;
+    }
+
+    // łączy dwa elementy
+    public UnionResult union(int p, int q) {
+        if (!contains(p) || !contains(q)) return UnionResult.UNKNOWN_ELEMENT;
+
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return UnionResult.ALREADY_CONNECTED;
+
+        // mniejsze drzewo podpinamy pod większe
+        if (size[rootP] < size[rootQ]) {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+        } else {
+            parent[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+        }
+        count--;
+        return UnionResult.MERGED;
+    }
+
+    // znajduje reprezentanta dla danego elementu
+    public int find(int p) {
+        checkElement(p);
+        while (p != parent[p]) {
+            parent[p] = parent[parent[p]];  // kompresja ścieżki (path halving)
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // czy element o tym identyfikatorze został dodany
+    public boolean contains(int p) {
+        return p >= 0 && p < n;
+    }
+
+    // zwraca liczbę dodanych elementów
+    public int size() {
+        return n;
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public int getCount() {
+        return count;
+    }
+
+    private void checkElement(int p) {
+        if (!contains(p)) {
+            throw new IndexOutOfBoundsException("nieznany element: " + p + ", dodano " + n);
+        }
+    }
+
+    private void grow() {
+        if (parent.length == Integer.MAX_VALUE) {
+            throw new IllegalStateException("osiągnięto maksymalną liczbę elementów");
+        }
+        // podwajanie - każdy element jest kopiowany średnio O(1) razy
+        int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(DEFAULT_CAPACITY, 2L * parent.length));
+        parent = Arrays.copyOf(parent, capacity);
+        size = Arrays.copyOf(size, capacity);
+    }
+}
@@ -0,0 +1,24 @@
+// ConcurrentUnionFind zbierający te same statystyki co InstrumentedUnionFind.
+// Liczniki to LongAdder, więc wątki nie rywalizują o jedną komórkę pamięci; rozkład
+// wysokości drzew w migawce jest przybliżony, jeśli inne wątki w tym czasie łączą zbiory.
+public class InstrumentedConcurrentUnionFind extends ConcurrentUnionFind {
+    private final UnionFindStats stats = new UnionFindStats();
+
+    public InstrumentedConcurrentUnionFind(int n) {
+        super(n);
+    }
+
+    public UnionFindStats.Snapshot snapshot() {
+        return stats.snapshot(size(), this::parentOf);
+    }
+
+    @Override
+    protected void onFind(int hops, int writes) {
+        stats.recordFind(hops, writes);
+    }
+
+    @Override
+    protected void onUnion(boolean merged) {
+        stats.recordUnion(merged);
+    }
+}
@@ -0,0 +1,35 @@
+// UnionFind zbierający statystyki: liczbę union i find, przejścia do rodzica na find,
+// zapisy kompresji ścieżki i rozkład wysokości drzew.
+//
+// Instrumentacja jest włączana przez wybór tej klasy zamiast UnionFind. Dopóki w programie
+// nie powstanie żaden InstrumentedUnionFind, puste haki UnionFind.onFind/onUnion mają jedną
+// implementację, JIT je inline'uje i usuwa razem z liczeniem - zwykły UnionFind nic nie płaci.
+//
+// Przy równoległym unionAll krawędzie są najpierw łączone w pomocniczych lasach bez
+// instrumentacji, a na tym obiekcie liczone jest scalanie: każda krawędź element-rodzic
+// z pomocniczego lasu to jedno union. Liczba union to wtedy liczba takich krawędzi, a nie
+// krawędzi wejściowych, ale udane union (merges) nadal odpowiadają spadkowi getCount().
+public class InstrumentedUnionFind extends UnionFind {
+    private final UnionFindStats stats = new UnionFindStats();
+    private final int n;
+
+    public InstrumentedUnionFind(int n) {
+        super(n);
+        this.n = n;
+    }
+
+    // migawka statystyk; rozkład wysokości drzew liczony jest w O(n) w chwili wywołania
+    public UnionFindStats.Snapshot snapshot() {
+        return stats.snapshot(n, this::parentOf);
+    }
+
+    @Override
+    protected void onFind(int hops, int writes) {
+        stats.recordFind(hops, writes);
+    }
+
+    @Override
+    protected void onUnion(boolean merged) {
+        stats.recordUnion(merged);
+    }
+}
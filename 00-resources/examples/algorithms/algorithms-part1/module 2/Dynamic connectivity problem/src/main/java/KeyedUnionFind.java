@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+// UnionFind nad dowolnymi kluczami obiektowymi (odpowiednik LongUnionFind dla typu K).
+//
+// Klucze są zamieniane na gęste identyfikatory 0..n-1 przez tablicę haszującą
+// z adresowaniem otwartym (sondowanie liniowe): klucze w Object[], identyfikatory w int[].
+// Nie powstają wpisy mapy ani opakowania Integer, więc union(K, K) i find(K)
+// nie alokują niczego poza tym, co zrobią equals/hashCode samego klucza.
+public class KeyedUnionFind<K> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_SLOTS = 1 << 30;
+    private static final int NO_ID = -1;
+
+    private Object[] slotKeys;  // klucze w tablicy haszującej
+    private int[] slotIds;    // identyfikator klucza w danym slocie albo NO_ID gdy slot pusty
+    private int mask;         // slotKeys.length - 1 (rozmiar jest potęgą dwójki)
+
+    private Object[] keys;     // odwrotne mapowanie: identyfikator -> klucz
+    private final GrowableUnionFind sets;
+
+    public KeyedUnionFind() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public KeyedUnionFind(int expectedKeys) {
+        if (expectedKeys < 0 || expectedKeys > MAX_SLOTS / 2) {
+            throw new IllegalArgumentException("nieprawidłowa liczba kluczy: " + expectedKeys);
+        }
+        int slots = tableSizeFor(expectedKeys);
+        slotKeys = new Object[slots];
+        slotIds = new int[slots];
+        Arrays.fill(slotIds, NO_ID);
+        mask = slots - 1;
+        keys = new Object[Math.max(DEFAULT_CAPACITY, expectedKeys)];
+        sets = new GrowableUnionFind(keys.length);
+    }
+
+    // łączy dwa klucze; nieznane klucze są najpierw dodawane jako osobne zbiory
+    public void union(K p, K q) {
+        sets.union(intern(p), intern(q));
+    }
+
+    // zwraca klucz będący reprezentantem zbioru; nieznany klucz jest swoim reprezentantem
+    @SuppressWarnings("unchecked")
+    public K find(K p) {
+        int id = idOf(p);
+        if (id == NO_ID) return p;
+        return (K) keys[sets.find(id)];
+    }
+
+    // sprawdza czy dwa klucze są połączone
+    public boolean isConnected(K p, K q) {
+        if (p.equals(q)) return true;
+        int idP = idOf(p);
+        int idQ = idOf(q);
+        if (idP == NO_ID || idQ == NO_ID) return false;
+        return sets.isConnected(idP, idQ);
+    }
+
+    // czy klucz pojawił się już w jakimś union
+    public boolean contains(K key) {
+        return idOf(key) != NO_ID;
+    }
+
+    // zwraca liczbę znanych kluczy
+    public int size() {
+        return sets.size();
+    }
+
+    // zwraca liczbę rozłącznych zbiorów wśród znanych kluczy
+    public int getCount() {
+        return sets.getCount();
+    }
+
+    // zwraca identyfikator klucza albo NO_ID
+    private int idOf(Object key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int id = slotIds[slot];
+            if (id == NO_ID) return NO_ID;
+            if (slotKeys[slot].equals(key)) return id;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // zwraca identyfikator klucza, w razie potrzeby dodając go do struktury
+    private int intern(K key) {
+        if (key == null) {
+            throw new NullPointerException("klucz nie może być null");
+        }
+        int slot = hash(key) & mask;
+        while (true) {
+            int id = slotIds[slot];
+            if (id == NO_ID) break;
+            if (slotKeys[slot].equals(key)) return id;
+            slot = (slot + 1) & mask;
+        }
+
+        if (2 * (sets.size() + 1) > MAX_SLOTS) {
+            throw new IllegalStateException("osiągnięto maksymalną liczbę kluczy");
+        }
+        int id = sets.add();
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[id] = key;
+        slotKeys[slot] = key;
+        slotIds[slot] = id;
+
+        // współczynnik wypełnienia 0.5 - krótkie ciągi sondowania
+        if (2 * (id + 1) > slotKeys.length) {
+            rehash(slotKeys.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int slots) {
+        Object[] newKeys = new Object[slots];
+        int[] newIds = new int[slots];
+        Arrays.fill(newIds, NO_ID);
+        int newMask = slots - 1;
+        for (int i = 0; i < slotKeys.length; i++) {
+            if (slotIds[i] == NO_ID) continue;
+            int slot = hash(slotKeys[i]) & newMask;
+            while (newIds[slot] != NO_ID) {
+                slot = (slot + 1) & newMask;
+            }
+            newKeys[slot] = slotKeys[i];
+            newIds[slot] = slotIds[i];
+        }
+        slotKeys = newKeys;
+        slotIds = newIds;
+        mask = newMask;
+    }
+
+    // mieszanie bitów hashCode (finalizer z MurmurHash3) - słabe hashCode nie tworzą długich ciągów sondowania
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // najmniejsza potęga dwójki mieszcząca expectedKeys przy wypełnieniu 0.5
+    private static int tableSizeFor(int expectedKeys) {
+        int slots = DEFAULT_CAPACITY;
+        while (slots < 2L * expectedKeys) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,93 @@
+import java.util.Arrays;
+
+// Minimalny las rozpinający algorytmem Kruskala na UnionFind.
+//
+// Krawędzie przychodzą jako równoległe tablice prymitywne (us[i], vs[i], weights[i]) - bez
+// obiektów krawędzi. Wagi są sortowane jako double[] przez Arrays.parallelSort, a potem każda
+// krawędź trafia na swoje miejsce: początek serii swojej wagi (wyszukiwanie binarne) plus
+// liczba krawędzi o tej wadze umieszczonych wcześniej. Całość to O(m log m) także wtedy, gdy
+// prawie wszystkie wagi są równe (np. graf nieważony), a krawędzie o równych wagach zostają
+// w kolejności wejścia. Przetwarzanie kończy się, gdy zostanie jedna składowa.
+public class Kruskal {
+
+    // wynik: wybrane krawędzie w kolejności rosnącej wagi
+    public static final class Result {
+        private final int[] edges;
+        private final double totalWeight;
+        private final int componentCount;
+
+        Result(int[] edges, double totalWeight, int componentCount) {
+            this.edges = edges;
+            this.totalWeight = totalWeight;
+            this.componentCount = componentCount;
+        }
+
+        // indeksy wybranych krawędzi w tablicach wejściowych
+        public int[] getEdges() {
+            return edges;
+        }
+
+        public double getTotalWeight() {
+            return totalWeight;
+        }
+
+        // liczba drzew w lesie (1, jeśli graf był spójny)
+        public int getComponentCount() {
+            return componentCount;
+        }
+    }
+
+    private Kruskal() {
+    }
+
+    public static Result minimumSpanningForest(int n, int[] us, int[] vs, double[] weights) {
+        int m = us.length;
+        if (vs.length != m || weights.length != m) {
+            throw new IllegalArgumentException("us, vs i weights muszą mieć tę samą długość");
+        }
+
+        for (int i = 0; i < m; i++) {
+            if (Double.isNaN(weights[i])) {
+                throw new IllegalArgumentException("waga krawędzi " + i + " to NaN");
+            }
+        }
+        double[] sorted = weights.clone();
+        Arrays.parallelSort(sorted);
+        int[] order = new int[m];
+        int[] placed = new int[m]; // placed[s] = ile krawędzi z serii zaczynającej się w s już ustawiono
+        for (int i = 0; i < m; i++) {
+            int start = lowerBound(sorted, weights[i]);
+            order[start + placed[start]++] = i;
+        }
+
+        UnionFind uf = new UnionFind(n);
+        int[] selected = new int[Math.max(0, n - 1)];
+        int count = 0;
+        double total = 0;
+        for (int k = 0; k < m && uf.getCount() > 1; k++) {
+            int edge = order[k];
+            int before = uf.getCount();
+            uf.union(us[edge], vs[edge]);
+            if (uf.getCount() < before) {
+                selected[count++] = edge;
+                total += weights[edge];
+            }
+        }
+        return new Result(Arrays.copyOf(selected, count), total, uf.getCount());
+    }
+
+    // pierwsza pozycja w posortowanej tablicy z wartością >= weight (porządek Double.compare)
+    private static int lowerBound(double[] sorted, double weight) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Double.compare(sorted[mid], weight) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
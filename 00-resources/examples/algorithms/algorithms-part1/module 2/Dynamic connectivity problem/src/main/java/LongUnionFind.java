@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+// UnionFind nad dowolnymi kluczami typu long (np. 64-bitowe identyfikatory encji).
+//
+// Klucze są zamieniane na gęste identyfikatory 0..n-1 przez tablicę haszującą
+// z adresowaniem otwartym (sondowanie liniowe) na prymitywnych tablicach,
+// a same połączenia trzyma GrowableUnionFind. Nie ma HashMap<Long, Integer>,
+// więc union(long, long) i find(long) nie tworzą żadnych obiektów.
+public class LongUnionFind {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_SLOTS = 1 << 30;
+    private static final int NO_ID = -1;
+
+    private long[] slotKeys;  // klucze w tablicy haszującej
+    private int[] slotIds;    // identyfikator klucza w danym slocie albo NO_ID gdy slot pusty
+    private int mask;         // slotKeys.length - 1 (rozmiar jest potęgą dwójki)
+
+    private long[] keys;      // odwrotne mapowanie: identyfikator -> klucz
+    private final GrowableUnionFind sets;
+
+    public LongUnionFind() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongUnionFind(int expectedKeys) {
+        if (expectedKeys < 0 || expectedKeys > MAX_SLOTS / 2) {
+            throw new IllegalArgumentException("nieprawidłowa liczba kluczy: " + expectedKeys);
+        }
+        int slots = tableSizeFor(expectedKeys);
+        slotKeys = new long[slots];
+        slotIds = new int[slots];
+        Arrays.fill(slotIds, NO_ID);
+        mask = slots - 1;
+        keys = new long[Math.max(DEFAULT_CAPACITY, expectedKeys)];
+        sets = new GrowableUnionFind(keys.length);
+    }
+
+    // łączy dwa klucze; nieznane klucze są najpierw dodawane jako osobne zbiory
+    public void union(long p, long q) {
+        sets.union(intern(p), intern(q));
+    }
+
+    // zwraca klucz będący reprezentantem zbioru; nieznany klucz jest swoim reprezentantem
+    public long find(long p) {
+        int id = idOf(p);
+        if (id == NO_ID) return p;
+        return keys[sets.find(id)];
+    }
+
+    // sprawdza czy dwa klucze są połączone
+    public boolean isConnected(long p, long q) {
+        if (p == q) return true;
+        int idP = idOf(p);
+        int idQ = idOf(q);
+        if (idP == NO_ID || idQ == NO_ID) return false;
+        return sets.isConnected(idP, idQ);
+    }
+
+    // czy klucz pojawił się już w jakimś union
+    public boolean contains(long key) {
+        return idOf(key) != NO_ID;
+    }
+
+    // zwraca liczbę znanych kluczy
+    public int size() {
+        return sets.size();
+    }
+
+    // zwraca liczbę rozłącznych zbiorów wśród znanych kluczy
+    public int getCount() {
+        return sets.getCount();
+    }
+
+    // zwraca identyfikator klucza albo NO_ID
+    private int idOf(long key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int id = slotIds[slot];
+            if (id == NO_ID) return NO_ID;
+            if (slotKeys[slot] == key) return id;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // zwraca identyfikator klucza, w razie potrzeby dodając go do struktury
+    private int intern(long key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int id = slotIds[slot];
+            if (id == NO_ID) break;
+            if (slotKeys[slot] == key) return id;
+            slot = (slot + 1) & mask;
+        }
+
+        if (2 * (sets.size() + 1) > MAX_SLOTS) {
+            throw new IllegalStateException("osiągnięto maksymalną liczbę kluczy");
+        }
+        int id = sets.add();
+        if (id == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        keys[id] = key;
+        slotKeys[slot] = key;
+        slotIds[slot] = id;
+
+        // współczynnik wypełnienia 0.5 - krótkie ciągi sondowania
+        if (2 * (id + 1) > slotKeys.length) {
+            rehash(slotKeys.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int slots) {
+        long[] newKeys = new long[slots];
+        int[] newIds = new int[slots];
+        Arrays.fill(newIds, NO_ID);
+        int newMask = slots - 1;
+        for (int i = 0; i < slotKeys.length; i++) {
+            if (slotIds[i] == NO_ID) continue;
+            int slot = hash(slotKeys[i]) & newMask;
+            while (newIds[slot] != NO_ID) {
+                slot = (slot + 1) & newMask;
+            }
+            newKeys[slot] = slotKeys[i];
+            newIds[slot] = slotIds[i];
+        }
+        slotKeys = newKeys;
+        slotIds = newIds;
+        mask = newMask;
+    }
+
+    // mieszanie bitów (finalizer z MurmurHash3) - kolejne identyfikatory nie trafiają w sąsiednie sloty
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    // najmniejsza potęga dwójki mieszcząca expectedKeys przy wypełnieniu 0.5
+    private static int tableSizeFor(int expectedKeys) {
+        int slots = DEFAULT_CAPACITY;
+        while (slots < 2L * expectedKeys) {
+            slots <<= 1;
+        }
+        return slots;
+    }
+}
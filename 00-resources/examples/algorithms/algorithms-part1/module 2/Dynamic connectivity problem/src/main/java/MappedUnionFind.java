@@ -0,0 +1,212 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// UnionFind trzymany poza stertą, w pliku mapowanym do pamięci.
+//
+// Elementy są indeksowane typem long, więc n może przekraczać 2^31. Stronicowaniem
+// zarządza system operacyjny - w RAM jest tylko to, czego faktycznie dotykamy.
+// Po flush() plik można otworzyć ponownie przez open() w O(1), bez przebudowy.
+//
+// Układ pliku (little endian):
+//   [0, 4096)        nagłówek: magic, wersja, n, count
+//   [4096, 4096+8n)  jedno słowo 64-bitowe na element: [ranga (8 bitów) | rodzic + 1 (56 bitów)]
+// Wartość 0 w polu rodzica oznacza korzeń, więc świeży (rzadki) plik wypełniony zerami
+// to od razu n osobnych zbiorów - create() nie musi niczego inicjalizować.
+public class MappedUnionFind implements Closeable {
+    private static final long MAGIC = 0x554E494F4E46494EL; // "UNIONFIN"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4096;
+    private static final int N_OFFSET = 16;
+    private static final int COUNT_OFFSET = 24;
+
+    private static final int DEFAULT_SEGMENT_SHIFT = 27; // 2^27 elementów * 8 B = 1 GiB na segment
+    private static final long PARENT_MASK = (1L << 56) - 1;
+    private static final long MAX_ELEMENTS = PARENT_MASK - 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments; // MappedByteBuffer ma indeks int, więc plik dzielimy na kawałki
+    private final int segmentShift;
+    private final long segmentMask;
+    private final long n;
+    private long count;
+
+    private MappedUnionFind(FileChannel channel, long n, long count, int segmentShift) throws IOException {
+        this.channel = channel;
+        this.n = n;
+        this.count = count;
+        this.segmentShift = segmentShift;
+        this.segmentMask = (1L << segmentShift) - 1;
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+
+        int segmentCount = (int) ((n + segmentMask) >>> segmentShift);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int s = 0; s < segmentCount; s++) {
+            long first = (long) s << segmentShift;
+            long elements = Math.min(n - first, 1L << segmentShift);
+            segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + first * 8, elements * 8);
+            segments[s].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    // tworzy nowy plik z n osobnymi elementami (nadpisuje istniejący)
+    public static MappedUnionFind create(Path file, long n) throws IOException {
+        return create(file, n, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    static MappedUnionFind create(Path file, long n, int segmentShift) throws IOException {
+        if (n < 0 || n > MAX_ELEMENTS) {
+            throw new IllegalArgumentException("nieprawidłowa liczba elementów: " + n);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            // tylko ustawienie długości - system plików tworzy plik rzadki wypełniony zerami
+            channel.write(ByteBuffer.wrap(new byte[1]), HEADER_BYTES + n * 8 - 1);
+
+            MappedUnionFind uf = new MappedUnionFind(channel, n, n, segmentShift);
+            uf.header.putLong(0, MAGIC);
+            uf.header.putInt(8, VERSION);
+            uf.header.putLong(N_OFFSET, n);
+            uf.flush();
+            return uf;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // otwiera istniejący plik; mapuje go bez czytania elementów, więc działa w O(1)
+    public static MappedUnionFind open(Path file) throws IOException {
+        return open(file, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    static MappedUnionFind open(Path file, int segmentShift) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer head = ByteBuffer.allocate(COUNT_OFFSET + 8).order(ByteOrder.LITTLE_ENDIAN);
+            while (head.hasRemaining()) {
+                if (channel.read(head, head.position()) < 0) break; // plik krótszy niż nagłówek
+            }
+            if (head.hasRemaining() || head.getLong(0) != MAGIC) {
+                throw new IOException("to nie jest plik MappedUnionFind: " + file);
+            }
+            if (head.getInt(8) != VERSION) {
+                throw new IOException("nieobsługiwana wersja pliku: " + head.getInt(8));
+            }
+            long n = head.getLong(N_OFFSET);
+            if (channel.size() < HEADER_BYTES + n * 8) {
+                throw new IOException("plik jest krótszy niż wynika z nagłówka: " + file);
+            }
+            return new MappedUnionFind(channel, n, head.getLong(COUNT_OFFSET), segmentShift);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // łączy dwa elementy
+    public void union(long p, long q) {
+        if (p < 0 || p >= n) return;
+        else if (q < 0 || q >= n) return;
+
+        long rootP = find(p);
+        long rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        // łączenie według rangi: płytsze drzewo podpinamy pod głębsze
+        int rankP = rankOf(get(rootP));
+        int rankQ = rankOf(get(rootQ));
+        if (rankP < rankQ) {
+            set(rootP, pack(rankP, rootQ));
+        } else {
+            set(rootQ, pack(rankQ, rootP));
+            if (rankP == rankQ) {
+                set(rootP, root(rankP + 1));
+            }
+        }
+        count--;
+    }
+
+    // znajduje reprezentanta dla danego elementu
+    public long find(long p) {
+        while (true) {
+            long word = get(p);
+            long parent = parentOf(word, p);
+            if (parent == p) return p;
+
+            long grandparent = parentOf(get(parent), parent);
+            if (grandparent != parent) {
+                set(p, pack(rankOf(word), grandparent)); // kompresja ścieżki (path halving)
+            }
+            p = grandparent;
+        }
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(long p, long q) {
+        return find(p) == find(q);
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public long getCount() {
+        return count;
+    }
+
+    // zwraca liczbę elementów
+    public long size() {
+        return n;
+    }
+
+    // zapisuje licznik zbiorów i wymusza zrzut zmienionych stron na dysk
+    public void flush() {
+        header.putLong(COUNT_OFFSET, count);
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private long get(long i) {
+        return segments[(int) (i >>> segmentShift)].getLong((int) (i & segmentMask) << 3);
+    }
+
+    private void set(long i, long word) {
+        segments[(int) (i >>> segmentShift)].putLong((int) (i & segmentMask) << 3, word);
+    }
+
+    private static long root(int rank) {
+        return (long) rank << 56;
+    }
+
+    private static long pack(int rank, long parent) {
+        return ((long) rank << 56) | (parent + 1);
+    }
+
+    // 0 w polu rodzica oznacza, że element jest korzeniem
+    private static long parentOf(long word, long self) {
+        long stored = word & PARENT_MASK;
+        return stored == 0 ? self : stored - 1;
+    }
+
+    private static int rankOf(long word) {
+        return (int) (word >>> 56);
+    }
+}
@@ -0,0 +1,195 @@
+import java.util.Arrays;
+
+// Spójność w grafie, z którego krawędzie są dodawane i usuwane - wersja offline.
+//
+// Najpierw zapisujemy cały dziennik operacji (addEdge / removeEdge / query), potem solve()
+// odpowiada na wszystkie zapytania naraz. Każda krawędź żyje w przedziale zapytań [od, do),
+// który rozkładamy na O(log q) węzłów drzewa przedziałowego. Przejście DFS po drzewie
+// dokłada krawędzie węzła do RollbackUnionFind, schodzi niżej i cofa je po powrocie.
+// Łącznie O((m + q) log m log n).
+public class OfflineDynamicConnectivity {
+    private static final byte ADD = 0;
+    private static final byte REMOVE = 1;
+    private static final byte QUERY = 2;
+
+    private final int n;
+
+    // dziennik operacji w prymitywnych tablicach
+    private byte[] types = new byte[16];
+    private int[] ps = new int[16];
+    private int[] qs = new int[16];
+    private int operations;
+    private int queries;
+
+    public OfflineDynamicConnectivity(int n) {
+        this.n = n;
+    }
+
+    // dodaje krawędź p-q (krawędzie wielokrotne są dozwolone)
+    public void addEdge(int p, int q) {
+        record(ADD, p, q);
+    }
+
+    // usuwa jedną wcześniej dodaną krawędź p-q
+    public void removeEdge(int p, int q) {
+        record(REMOVE, p, q);
+    }
+
+    // zapisuje zapytanie "czy p i q są połączone" i zwraca jego numer w tablicy wyników solve()
+    public int query(int p, int q) {
+        record(QUERY, p, q);
+        return queries++;
+    }
+
+    // odpowiada na wszystkie zapytania w kolejności ich zapisania
+    public boolean[] solve() {
+        boolean[] answers = new boolean[queries];
+        if (queries == 0) return answers;
+
+        // krawędź nieskierowana -> klucz (min, max); klucze zamieniamy na gęste identyfikatory
+        long[] keys = new long[operations];
+        int edgeEvents = 0;
+        for (int i = 0; i < operations; i++) {
+            if (types[i] != QUERY) keys[edgeEvents++] = key(ps[i], qs[i]);
+        }
+        long[] distinct = Arrays.copyOf(keys, edgeEvents);
+        Arrays.sort(distinct);
+        int distinctCount = 0;
+        for (int i = 0; i < distinct.length; i++) {
+            if (i == 0 || distinct[i] != distinct[i - 1]) distinct[distinctCount++] = distinct[i];
+        }
+
+        // (identyfikator krawędzi, numer operacji) - po posortowaniu zdarzenia każdej krawędzi
+        // leżą obok siebie w kolejności czasu
+        long[] events = new long[edgeEvents];
+        int[] timeOf = new int[operations]; // liczba zapytań przed daną operacją
+        int e = 0;
+        for (int i = 0, time = 0; i < operations; i++) {
+            timeOf[i] = time;
+            if (types[i] == QUERY) {
+                time++;
+            } else {
+                long edge = Arrays.binarySearch(distinct, 0, distinctCount, key(ps[i], qs[i]));
+                events[e++] = (edge << 32) | i;
+            }
+        }
+        Arrays.sort(events);
+
+        // przedziały życia krawędzi: [from, to) w numeracji zapytań
+        int[] intervalFrom = new int[edgeEvents];
+        int[] intervalTo = new int[edgeEvents];
+        int[] intervalOp = new int[edgeEvents];
+        int intervals = 0;
+        int[] open = new int[edgeEvents]; // stos otwartych dodań bieżącej krawędzi
+        for (int start = 0; start < edgeEvents; ) {
+            int end = start;
+            long edge = events[start] >>> 32;
+            int openCount = 0;
+            while (end < edgeEvents && events[end] >>> 32 == edge) {
+                int op = (int) events[end];
+                if (types[op] == ADD) {
+                    open[openCount++] = op;
+                } else if (openCount == 0) {
+                    throw new IllegalStateException("usunięcie nieistniejącej krawędzi " + ps[op] + "-" + qs[op]);
+                } else {
+                    int added = open[--openCount];
+                    intervals = addInterval(intervalFrom, intervalTo, intervalOp, intervals,
+                            timeOf[added], timeOf[op], added);
+                }
+                end++;
+            }
+            while (openCount > 0) {
+                int added = open[--openCount];
+                intervals = addInterval(intervalFrom, intervalTo, intervalOp, intervals,
+                        timeOf[added], queries, added);
+            }
+            start = end;
+        }
+
+        // drzewo przedziałowe nad [0, queries): listy krawędzi węzłów w formacie CSR
+        int nodes = 4 * queries;
+        int[] offsets = new int[nodes + 1];
+        for (int i = 0; i < intervals; i++) {
+            cover(1, 0, queries, intervalFrom[i], intervalTo[i], offsets, null, -1);
+        }
+        for (int v = 0; v < nodes; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] nodeEdges = new int[offsets[nodes]];
+        int[] fill = Arrays.copyOf(offsets, nodes);
+        for (int i = 0; i < intervals; i++) {
+            cover(1, 0, queries, intervalFrom[i], intervalTo[i], fill, nodeEdges, intervalOp[i]);
+        }
+
+        int[] queryOps = new int[queries];
+        for (int i = 0, k = 0; i < operations; i++) {
+            if (types[i] == QUERY) queryOps[k++] = i;
+        }
+
+        RollbackUnionFind uf = new RollbackUnionFind(n);
+        solve(1, 0, queries, offsets, nodeEdges, queryOps, uf, answers);
+        return answers;
+    }
+
+    private void solve(int node, int from, int to, int[] offsets, int[] nodeEdges, int[] queryOps,
+                       RollbackUnionFind uf, boolean[] answers) {
+        int snapshot = uf.snapshot();
+        for (int i = offsets[node - 1]; i < offsets[node]; i++) {
+            int op = nodeEdges[i];
+            uf.union(ps[op], qs[op]);
+        }
+        if (to - from == 1) {
+            int op = queryOps[from];
+            answers[from] = ps[op] == qs[op] || uf.isConnected(ps[op], qs[op]);
+        } else {
+            int mid = (from + to) >>> 1;
+            solve(2 * node, from, mid, offsets, nodeEdges, queryOps, uf, answers);
+            solve(2 * node + 1, mid, to, offsets, nodeEdges, queryOps, uf, answers);
+        }
+        uf.rollback(snapshot);
+    }
+
+    // przypisuje przedział [lo, hi) do węzłów drzewa: liczy je (edges == null) albo wpisuje krawędź
+    private static void cover(int node, int from, int to, int lo, int hi, int[] slots, int[] edges, int op) {
+        if (hi <= from || to <= lo) return;
+        if (lo <= from && to <= hi) {
+            // węzeł v (od 1) ma swoją listę w [offsets[v - 1], offsets[v])
+            if (edges == null) {
+                slots[node]++;
+            } else {
+                edges[slots[node - 1]++] = op;
+            }
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        cover(2 * node, from, mid, lo, hi, slots, edges, op);
+        cover(2 * node + 1, mid, to, lo, hi, slots, edges, op);
+    }
+
+    private static int addInterval(int[] from, int[] to, int[] op, int intervals, int start, int end, int added) {
+        if (start == end) return intervals; // krawędź nie obejmuje żadnego zapytania
+        from[intervals] = start;
+        to[intervals] = end;
+        op[intervals] = added;
+        return intervals + 1;
+    }
+
+    private void record(byte type, int p, int q) {
+        if (p < 0 || p >= n || q < 0 || q >= n) {
+            throw new IndexOutOfBoundsException("nieznany element: " + (p < 0 || p >= n ? p : q));
+        }
+        if (operations == types.length) {
+            types = Arrays.copyOf(types, operations * 2);
+            ps = Arrays.copyOf(ps, operations * 2);
+            qs = Arrays.copyOf(qs, operations * 2);
+        }
+        types[operations] = type;
+        ps[operations] = p;
+        qs[operations] = q;
+        operations++;
+    }
+
+    private static long key(int p, int q) {
+        return p < q ? ((long) p << 32) | q : ((long) q << 32) | p;
+    }
+}
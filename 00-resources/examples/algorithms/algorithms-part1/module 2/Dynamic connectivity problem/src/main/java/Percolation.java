@@ -0,0 +1,71 @@
+// Perkolacja na siatce N x N.
+//
+// Pola siatki to elementy 0..N*N-1 w UnionFind, a dwa dodatkowe, wirtualne elementy
+// (góra i dół) są połączone z otwartymi polami pierwszego i ostatniego wiersza.
+// Siatka perkoluje, gdy góra i dół są w tym samym zbiorze - jedno isConnected zamiast
+// sprawdzania wszystkich par pól z pierwszego i ostatniego wiersza.
+public class Percolation {
+    private final int size;
+    private final boolean[] open;
+    private final UnionFind uf;
+    private final int top;
+    private final int bottom;
+    private int openCount;
+
+    public Percolation(int size) {
+        if (size <= 0 || (long) size * size + 2 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("nieprawidłowy rozmiar siatki: " + size);
+        }
+        this.size = size;
+        this.open = new boolean[size * size];
+        this.uf = new UnionFind(size * size + 2);
+        this.top = size * size;
+        this.bottom = size * size + 1;
+    }
+
+    // otwiera pole (row, col), liczone od 0, i łączy je z otwartymi sąsiadami
+    public void open(int row, int col) {
+        openSite(index(row, col));
+    }
+
+    public boolean isOpen(int row, int col) {
+        return open[index(row, col)];
+    }
+
+    // czy pole jest połączone z górnym wierszem przez otwarte pola
+    public boolean isFull(int row, int col) {
+        int site = index(row, col);
+        return open[site] && uf.isConnected(site, top);
+    }
+
+    public boolean percolates() {
+        return uf.isConnected(top, bottom);
+    }
+
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    // otwiera pole o indeksie row * size + col
+    void openSite(int site) {
+        if (open[site]) return;
+        open[site] = true;
+        openCount++;
+
+        int row = site / size;
+        int col = site % size;
+        if (row == 0) uf.union(site, top);
+        if (row == size - 1) uf.union(site, bottom);
+        if (row > 0 && open[site - size]) uf.union(site, site - size);
+        if (row < size - 1 && open[site + size]) uf.union(site, site + size);
+        if (col > 0 && open[site - 1]) uf.union(site, site - 1);
+        if (col < size - 1 && open[site + 1]) uf.union(site, site + 1);
+    }
+
+    private int index(int row, int col) {
+        if (row < 0 || row >= size || col < 0 || col >= size) {
+            throw new IndexOutOfBoundsException("pole (" + row + ", " + col + ") poza siatką " + size + "x" + size);
+        }
+        return row * size + col;
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+// Szacowanie progu perkolacji metodą Monte Carlo.
+//
+// Każda próba otwiera pola w losowej kolejności (permutacja Fishera-Yatesa na int[]),
+// aż siatka zacznie perkolować, i zapisuje ułamek otwartych pól. Próby są niezależne,
+// więc liczą się równolegle na wszystkich rdzeniach. Próba t dostaje własny generator
+// z ziarna (seed, t), więc wynik nie zależy od liczby wątków.
+//
+// Użycie: java PercolationStats <N> <liczba prób> [ziarno]
+public class PercolationStats {
+    private static final double CONFIDENCE_95 = 1.96;
+
+    private final double[] thresholds;
+
+    public PercolationStats(int size, int trials, long seed) {
+        if (size <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("rozmiar i liczba prób muszą być dodatnie");
+        }
+        thresholds = new double[trials];
+        IntStream.range(0, trials).parallel()
+                .forEach(t -> thresholds[t] = runTrial(size, new SplittableRandom(seed ^ (0x9E3779B97F4A7C15L * (t + 1)))));
+    }
+
+    public static void main(String[] args) {
+        int size = Integer.parseInt(args[0]);
+        int trials = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+
+        long start = System.nanoTime();
+        PercolationStats stats = new PercolationStats(size, trials, seed);
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("średnia                 = %.6f%n", stats.mean());
+        System.out.printf("odchylenie standardowe  = %.6f%n", stats.stddev());
+        System.out.printf("95%% przedział ufności   = [%.6f, %.6f]%n", stats.confidenceLo(), stats.confidenceHi());
+        System.out.printf("czas                    = %.1f ms%n", elapsed / 1e6);
+    }
+
+    public double mean() {
+        double sum = 0;
+        for (double threshold : thresholds) {
+            sum += threshold;
+        }
+        return sum / thresholds.length;
+    }
+
+    public double stddev() {
+        if (thresholds.length < 2) return Double.NaN;
+        double mean = mean();
+        double sum = 0;
+        for (double threshold : thresholds) {
+            sum += (threshold - mean) * (threshold - mean);
+        }
+        return Math.sqrt(sum / (thresholds.length - 1));
+    }
+
+    public double confidenceLo() {
+        return mean() - CONFIDENCE_95 * stddev() / Math.sqrt(thresholds.length);
+    }
+
+    public double confidenceHi() {
+        return mean() + CONFIDENCE_95 * stddev() / Math.sqrt(thresholds.length);
+    }
+
+    // jedna próba: ułamek pól otwartych w chwili, gdy siatka zaczęła perkolować
+    private static double runTrial(int size, SplittableRandom random) {
+        int sites = size * size;
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+
+        Percolation percolation = new Percolation(size);
+        for (int i = 0; i < sites && !percolation.percolates(); i++) {
+            // losowanie kolejnego pola w locie - tasowanie tylko tej części, której używamy
+            int j = i + random.nextInt(sites - i);
+            int site = order[j];
+            order[j] = order[i];
+            order[i] = site;
+            percolation.openSite(site);
+        }
+        return (double) percolation.getOpenCount() / sites;
+    }
+}
@@ -0,0 +1,76 @@
+// Niezmienna tablica int z kopiowaniem ścieżki (trie o rozgałęzieniu 32).
+//
+// set nie zmienia tablicy, tylko zwraca nową wersję: kopiuje węzły na ścieżce od korzenia
+// do liścia (log32 n węzłów po 32 pola), a resztę drzewa współdzieli ze starą wersją.
+// Brakujący węzeł (null) oznacza same zera, więc pusta tablica dowolnej długości
+// powstaje w O(1).
+public final class PersistentIntArray {
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private final Object root; // Object[] w węzłach wewnętrznych, int[] w liściach
+    private final int length;
+    private final int shift;   // przesunięcie indeksu dla poziomu korzenia
+
+    public PersistentIntArray(int length) {
+        this(null, length, shiftFor(length));
+    }
+
+    private PersistentIntArray(Object root, int length, int shift) {
+        this.root = root;
+        this.length = length;
+        this.shift = shift;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public int get(int i) {
+        checkIndex(i);
+        Object node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            if (node == null) return 0;
+            node = ((Object[]) node)[(i >>> level) & MASK];
+        }
+        return node == null ? 0 : ((int[]) node)[i & MASK];
+    }
+
+    // zwraca nową wersję z array[i] = value; ta wersja pozostaje bez zmian
+    public PersistentIntArray set(int i, int value) {
+        checkIndex(i);
+        if (get(i) == value) return this;
+        return new PersistentIntArray(set(root, shift, i, value), length, shift);
+    }
+
+    private static Object set(Object node, int level, int i, int value) {
+        if (level == 0) {
+            int[] leaf = node == null ? new int[WIDTH] : ((int[]) node).clone();
+            leaf[i & MASK] = value;
+            return leaf;
+        }
+        Object[] copy = node == null ? new Object[WIDTH] : ((Object[]) node).clone();
+        int slot = (i >>> level) & MASK;
+        copy[slot] = set(copy[slot], level - BITS, i, value);
+        return copy;
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException("indeks " + i + " poza tablicą o długości " + length);
+        }
+    }
+
+    // najmniejsze przesunięcie, przy którym trie mieści length elementów
+    private static int shiftFor(int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("długość nie może być ujemna: " + length);
+        }
+        int shift = 0;
+        while (shift + BITS < 32 && ((long) length - 1) >>> (shift + BITS) > 0) {
+            shift += BITS;
+        }
+        return shift;
+    }
+}
@@ -0,0 +1,63 @@
+// Trwały (niezmienny, wersjonowany) UnionFind.
+//
+// union nie zmienia obiektu, tylko zwraca nową wersję; stare wersje nadal odpowiadają na
+// zapytania. Rodzice i rangi leżą w PersistentIntArray, więc nowa wersja kopiuje tylko
+// O(log n) pól zamiast całej tablicy parent. find nie kompresuje ścieżek (to byłaby
+// modyfikacja), a łączenie według rangi ogranicza wysokość drzew do log2 n.
+//
+// Wszystkie pola są final, więc wersję można przekazać innym wątkom bez blokad - czytelnicy
+// dostają spójny widok, a pisarz publikuje kolejne wersje, np. przez
+// AtomicReference<PersistentUnionFind>.updateAndGet(v -> v.union(p, q)).
+public final class PersistentUnionFind {
+    private final PersistentIntArray parent; // rodzic + 1, a 0 oznacza korzeń (pusta tablica = same korzenie)
+    private final PersistentIntArray rank;
+    private final int count;                 // liczba rozłącznych zbiorów
+
+    public PersistentUnionFind(int n) {
+        this(new PersistentIntArray(n), new PersistentIntArray(n), n);
+    }
+
+    private PersistentUnionFind(PersistentIntArray parent, PersistentIntArray rank, int count) {
+        this.parent = parent;
+        this.rank = rank;
+        this.count = count;
+    }
+
+    // zwraca wersję, w której p i q są połączone (this, jeśli nic się nie zmienia)
+    public PersistentUnionFind union(int p, int q) {
+        int n = parent.length();
+        if (p < 0 || p >= n) return this;
+        else if (q < 0 || q >= n) return this;
+
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return this;
+
+        int rankP = rank.get(rootP);
+        int rankQ = rank.get(rootQ);
+        if (rankP < rankQ) {
+            return new PersistentUnionFind(parent.set(rootP, rootQ + 1), rank, count - 1);
+        }
+        PersistentIntArray newRank = rankP == rankQ ? rank.set(rootP, rankP + 1) : rank;
+        return new PersistentUnionFind(parent.set(rootQ, rootP + 1), newRank, count - 1);
+    }
+
+    // znajduje reprezentanta dla danego elementu
+    public int find(int p) {
+        while (true) {
+            int stored = parent.get(p);
+            if (stored == 0) return p;
+            p = stored - 1;
+        }
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,101 @@
+import java.util.Arrays;
+
+// UnionFind z możliwością cofania połączeń.
+//
+// Kompresja ścieżki w find przepina wiele wskaźników naraz, więc nie da się jej tanio cofnąć.
+// Tutaj łączymy tylko według rangi (wysokość drzewa <= log2(n), find w O(log n))
+// i każde union zapisuje na prymitywnym stosie jedną zmianę: który korzeń podpięto
+// i czy ranga nowego korzenia wzrosła. rollback(snapshot) zdejmuje zmiany w O(liczby zmian).
+public class RollbackUnionFind {
+    private final int[] parent;  // tablica reprezentująca połączenia
+    private final byte[] rank;   // górne ograniczenie wysokości drzewa (ważne dla korzeni)
+    private int count;           // liczba rozłącznych zbiorów
+
+    // stos zmian: podpięty korzeń, a w najstarszym bicie - czy ranga nowego korzenia wzrosła
+    private int[] history;
+    private int historySize;
+
+    private static final int RANK_CHANGED = 1 << 31;
+
+    public RollbackUnionFind(int n) {
+        parent = new int [n];
+        rank = new byte [n];
+        history = new int [16];
+        count = n;
+
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+    }
+
+    // łączy dwa elementy; zwraca true, jeśli powstała zmiana do cofnięcia
+    public boolean union(int p, int q) {
+        if (p < 0 || p >= parent.length) return false;
+        else if (q < 0 || q >= parent.length) return false;
+
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return false;
+
+        if (rank[rootP] < rank[rootQ]) {
+            int root = rootP; rootP = rootQ; rootQ = root;
+        }
+        // rootQ (niższe drzewo) trafia pod rootP
+        parent[rootQ] = rootP;
+        int change = rootQ;
+        if (rank[rootP] == rank[rootQ]) {
+            rank[rootP]++;
+            change |= RANK_CHANGED;
+        }
+        push(change);
+        count--;
+        return true;
+    }
+
+    // znajduje reprezentanta dla danego elementu - bez kompresji ścieżki
+    public int find(int p) {
+        while (p != parent[p]) {
+            p = parent[p];
+        }
+        return p;
+    }
+
+    // sprawdza czy dwa elementy są połączone
+    public boolean isConnected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // zwraca liczbę rozłącznych zbiorów
+    public int getCount() {
+        return count;
+    }
+
+    // zwraca punkt, do którego można później wrócić przez rollback
+    public int snapshot() {
+        return historySize;
+    }
+
+    // cofa wszystkie połączenia wykonane po danym snapshot
+    public void rollback(int snapshot) {
+        if (snapshot < 0 || snapshot > historySize) {
+            throw new IllegalArgumentException("nieprawidłowy snapshot: " + snapshot + ", zmian: " + historySize);
+        }
+        while (historySize > snapshot) {
+            int change = history[--historySize];
+            int child = change & ~RANK_CHANGED;
+            int root = parent[child];
+            if ((change & RANK_CHANGED) != 0) {
+                rank[root]--;
+            }
+            parent[child] = child;
+            count++;
+        }
+    }
+
+    private void push(int change) {
+        if (historySize == history.length) {
+            history = Arrays.copyOf(history, history.length * 2);
+        }
+        history[historySize++] = change;
+    }
+}
@@ -1,14 +1,29 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
 public class UnionFind {
+    // poniżej tylu krawędzi na fragment nie opłaca się budować osobnego lasu
+    private static final int MIN_EDGES_PER_CHUNK = 1 << 16;
+
     private int[] parent;  // tablica reprezentująca połączenia
+    private int[] size;    // rozmiar drzewa zakorzenionego w danym elemencie (ważne tylko dla korzeni)
+    private int[] next;    // następny element tego samego zbioru - cykliczna lista członków
     private int count;     // liczba rozłącznych zbiorów
 
     public UnionFind(int n) {
         // Konstruktor - inicjalizacja struktury
         parent = new int [n];
+        size = new int [n];
+        next = new int [n];
         count = n; // na początku każdy element jest osobnym zbiorem
 
         for (int i = 0; i < n; i++) {
             parent[i] = i;
+            size[i] = 1;
+            next[i] = i; // lista jednoelementowa wskazuje na siebie
         }
 
         // Indeks:  0  1  2  3  4
@@ -28,27 +43,260 @@ public class UnionFind {
 
         int rootP = find(p); // pobieram info o zbiorze
         int rootQ = find(q); // pobieram info o zbiorze
-        if (rootP != rootQ) {// zbiory nie są takie same
-            parent[rootQ] = rootP;
-            count--;
-        }
+        onUnion(link(rootP, rootQ));
     }
 
     // znajduje reprezentnta dla danego elementu
     public int find(int p) {
-        if (p != parent[p]) {
-            parent[p] = find(parent[p]);  // kompresja ścieżki
+        // iteracyjnie, bez rekurencji - długi łańcuch nie przepełni stosu
+        int hops = 0;
+        int writes = 0;
+        while (p != parent[p]) {
+            int grandparent = parent[parent[p]];
+            if (grandparent != parent[p]) {
+                parent[p] = grandparent;  // kompresja ścieżki (path halving)
+                writes++;
+            }
+            p = grandparent;
+            hops++;
         }
-        return parent[p];
+        onFind(hops, writes);
+        return p;
+    }
+
+    // łączy pary (ps[i], qs[i]) - przy dużej liczbie krawędzi równolegle w ForkJoinPool.commonPool()
+    public void unionAll(int[] ps, int[] qs) {
+        unionAll(ps, qs, ForkJoinPool.commonPool());
+    }
+
+    // łączy pary (ps[i], qs[i]) korzystając z podanej puli wątków
+    public void unionAll(int[] ps, int[] qs, ForkJoinPool pool) {
+        if (ps.length != qs.length) {
+            throw new IllegalArgumentException("ps i qs muszą mieć tę samą długość");
+        }
+        unionAll(ps, qs, 0, 1, ps.length, pool);
+    }
+
+    // łączy pary ze strumienia w postaci p0, q0, p1, q1, ...
+    public void unionAll(IntStream pairs) {
+        int[] flat = pairs.toArray();
+        if (flat.length % 2 != 0) {
+            throw new IllegalArgumentException("strumień musi zawierać parzystą liczbę elementów");
+        }
+        // p pod indeksami parzystymi, q pod nieparzystymi - bez rozdzielania na dwie tablice
+        unionAll(flat, flat, 1, 2, flat.length / 2, ForkJoinPool.commonPool());
     }
 
     // sprawdza czy dwa elementy są połączone
     public boolean isConnected(int p, int q){
         return find(p) == find(q);
     }
-    
+
     // zwraca liczbę rozłącznych zbiorów
     public int getCount() {
         return count;
     }
+
+    // zwraca liczbę elementów w zbiorze, do którego należy p - rozmiar jest pamiętany w korzeniu
+    public int componentSize(int p) {
+        return size[find(p)];
+    }
+
+    // przechodzi po wszystkich elementach zbioru zawierającego p w czasie O(rozmiar zbioru)
+    public PrimitiveIterator.OfInt members(final int p) {
+        if (p < 0 || p >= parent.length) {
+            throw new IndexOutOfBoundsException("nieznany element: " + p);
+        }
+        return new PrimitiveIterator.OfInt() {
+            private int current = p;
+            private boolean started;
+
+            @Override
+            public boolean hasNext() {
+                return !started || current != p;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) throw new NoSuchElementException();
+                started = true;
+                int member = current;
+                current = next[current];
+                return member;
+            }
+        };
+    }
+
+    // grupuje wszystkie elementy według zbiorów w jednym przejściu (format CSR)
+    public Components components() {
+        int n = parent.length;
+        int[] offsets = new int [count + 1];
+        int[] members = new int [n];
+        int[] componentOf = new int [n]; // numer zbioru + 1 dla korzenia, 0 = jeszcze nie widziany
+        int[] cursor = new int [count];  // następna wolna pozycja w members dla danego zbioru
+        int components = 0;
+
+        for (int i = 0; i < n; i++) {
+            int root = find(i);
+            int c = componentOf[root] - 1;
+            if (c < 0) {
+                // rozmiar zbioru znamy z góry, więc od razu rezerwujemy mu miejsce
+                c = components++;
+                componentOf[root] = c + 1;
+                cursor[c] = offsets[c];
+                offsets[c + 1] = offsets[c] + size[root];
+            }
+            members[cursor[c]++] = i;
+        }
+        return new Components(offsets, members);
+    }
+
+    // zbiory w formacie CSR: członkowie zbioru c to members[offsets[c]] .. members[offsets[c + 1] - 1]
+    public static final class Components {
+        private final int[] offsets;
+        private final int[] members;
+
+        Components(int[] offsets, int[] members) {
+            this.offsets = offsets;
+            this.members = members;
+        }
+
+        // zwraca liczbę zbiorów
+        public int getCount() {
+            return offsets.length - 1;
+        }
+
+        // zwraca liczbę elementów w zbiorze c
+        public int size(int c) {
+            return offsets[c + 1] - offsets[c];
+        }
+
+        // tablica przesunięć długości getCount() + 1 (bez kopiowania)
+        public int[] getOffsets() {
+            return offsets;
+        }
+
+        // elementy pogrupowane według zbiorów (bez kopiowania)
+        public int[] getMembers() {
+            return members;
+        }
+    }
+
+    // krawędź i to (ps[i * stride], qs[i * stride + qOffset])
+    private void unionAll(int[] ps, int[] qs, int qOffset, int stride, int edges, ForkJoinPool pool) {
+        int n = parent.length;
+        // każdy fragment ma własny las rozmiaru n, więc fragment musi mieć co najmniej n krawędzi
+        long chunks = Math.min(pool.getParallelism(), edges / Math.max(n, MIN_EDGES_PER_CHUNK));
+        if (chunks <= 1) {
+            unionRange(ps, qs, qOffset, stride, 0, edges);
+            return;
+        }
+
+        int chunkSize = (int) ((edges + chunks - 1) / chunks);
+        UnionFind forest = pool.invoke(new UnionAllTask(n, ps, qs, qOffset, stride, edges, chunkSize, 0, (int) chunks));
+        merge(forest);
+    }
+
+    // łączy krawędzie z zakresu [from, to) bez pośrednich wywołań union
+    private void unionRange(int[] ps, int[] qs, int qOffset, int stride, int from, int to) {
+        int n = parent.length;
+        for (int i = from; i < to; i++) {
+            int p = ps[i * stride];
+            int q = qs[i * stride + qOffset];
+            if (p < 0 || p >= n || q < 0 || q >= n) continue;
+            onUnion(link(find(p), find(q)));
+        }
+    }
+
+    // dokłada wszystkie połączenia z innego lasu nad tym samym zbiorem elementów;
+    // wystarczy krawędź element-rodzic, bo to ona odtwarza spójność drzewa
+    // (każda taka krawędź to jedno union dla onUnion)
+    private void merge(UnionFind other) {
+        int[] otherParent = other.parent;
+        for (int i = 0; i < otherParent.length; i++) {
+            if (otherParent[i] != i) {
+                onUnion(link(find(i), find(otherParent[i])));
+            }
+        }
+    }
+
+    // wywoływane po każdym find - liczba przejść w górę drzewa i zapisów kompresji ścieżki;
+    // w tej klasie puste, więc JIT usuwa wywołanie razem z liczeniem hops i writes
+    protected void onFind(int hops, int writes) {
+    }
+
+    // wywoływane po każdym union z poprawnymi elementami; merged = czy połączono dwa różne zbiory
+    protected void onUnion(boolean merged) {
+    }
+
+    // rodzic elementu - do analizy kształtu drzew bez kompresji ścieżki
+    int parentOf(int p) {
+        return parent[p];
+    }
+
+    // podpina korzeń mniejszego drzewa pod korzeń większego,
+    // dzięki temu wysokość drzewa nie przekracza log2(n); zwraca false, gdy to ten sam korzeń
+    private boolean link(int rootP, int rootQ) {
+        if (rootP == rootQ) return false;
+        if (size[rootP] < size[rootQ]) {
+            parent[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+        } else {
+            parent[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+        }
+        // zamiana następników skleja dwie cykliczne listy w jedną
+        int nextP = next[rootP];
+        next[rootP] = next[rootQ];
+        next[rootQ] = nextP;
+        count--;
+        return true;
+    }
+
+    // dzieli krawędzie na fragmenty, każdy łączy we własnym lesie, a lasy scala parami
+    private static final class UnionAllTask extends RecursiveTask<UnionFind> {
+        private static final long serialVersionUID = 1L;
+
+        private final int n;
+        private final int[] ps;
+        private final int[] qs;
+        private final int qOffset;
+        private final int stride;
+        private final int edges;
+        private final int chunkSize;
+        private final int firstChunk; // zakres fragmentów [firstChunk, lastChunk)
+        private final int lastChunk;
+
+        UnionAllTask(int n, int[] ps, int[] qs, int qOffset, int stride, int edges, int chunkSize,
+                     int firstChunk, int lastChunk) {
+            this.n = n;
+            this.ps = ps;
+            this.qs = qs;
+            this.qOffset = qOffset;
+            this.stride = stride;
+            this.edges = edges;
+            this.chunkSize = chunkSize;
+            this.firstChunk = firstChunk;
+            this.lastChunk = lastChunk;
+        }
+
+        @Override
+        protected UnionFind compute() {
+            if (lastChunk - firstChunk == 1) {
+                int from = (int) Math.min(edges, (long) firstChunk * chunkSize);
+                int to = (int) Math.min(edges, (long) lastChunk * chunkSize);
+                UnionFind forest = new UnionFind(n);
+                forest.unionRange(ps, qs, qOffset, stride, from, to);
+                return forest;
+            }
+            int mid = (firstChunk + lastChunk) >>> 1;
+            UnionAllTask left = new UnionAllTask(n, ps, qs, qOffset, stride, edges, chunkSize, firstChunk, mid);
+            UnionAllTask right = new UnionAllTask(n, ps, qs, qOffset, stride, edges, chunkSize, mid, lastChunk);
+            left.fork();
+            UnionFind rightForest = right.compute();
+            UnionFind leftForest = left.join();
+            leftForest.merge(rightForest);
+            return leftForest;
+        }
+    }
 }
@@ -0,0 +1,173 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntUnaryOperator;
+
+// Liczniki operacji union-find używane przez InstrumentedUnionFind i InstrumentedConcurrentUnionFind.
+//
+// Wszystkie liczniki to LongAdder - każdy wątek zwiększa własną komórkę, więc przy wielu
+// wątkach nie walczą o jedną linię cache. Histogramy mają kubełki potęg dwójki:
+// kubełek 0 to wartość 0, kubełek k >= 1 to wartości z [2^(k-1), 2^k).
+public class UnionFindStats {
+    static final int BUCKETS = 33;
+
+    private final LongAdder unions = new LongAdder();
+    private final LongAdder merges = new LongAdder();
+    private final LongAdder finds = new LongAdder();
+    private final LongAdder hops = new LongAdder();
+    private final LongAdder[] hopHistogram = adders();
+    private final LongAdder[] writeHistogram = adders();
+
+    void recordFind(int findHops, int writes) {
+        finds.increment();
+        hops.add(findHops);
+        hopHistogram[bucket(findHops)].increment();
+        writeHistogram[bucket(writes)].increment();
+    }
+
+    void recordUnion(boolean merged) {
+        unions.increment();
+        if (merged) merges.increment();
+    }
+
+    // migawka liczników i rozkładu wysokości drzew; parent zwraca rodzica elementu 0..n-1
+    Snapshot snapshot(int n, IntUnaryOperator parent) {
+        return new Snapshot(unions.sum(), merges.sum(), finds.sum(), hops.sum(),
+                sums(hopHistogram), sums(writeHistogram), heightHistogram(n, parent));
+    }
+
+    // niezmienna migawka statystyk
+    public static final class Snapshot {
+        private final long unions;
+        private final long merges;
+        private final long finds;
+        private final long hops;
+        private final long[] hopHistogram;
+        private final long[] writeHistogram;
+        private final long[] heightHistogram;
+
+        Snapshot(long unions, long merges, long finds, long hops,
+                 long[] hopHistogram, long[] writeHistogram, long[] heightHistogram) {
+            this.unions = unions;
+            this.merges = merges;
+            this.finds = finds;
+            this.hops = hops;
+            this.hopHistogram = hopHistogram;
+            this.writeHistogram = writeHistogram;
+            this.heightHistogram = heightHistogram;
+        }
+
+        // liczba wywołań union z poprawnymi elementami
+        public long getUnions() {
+            return unions;
+        }
+
+        // liczba union, które połączyły dwa różne zbiory
+        public long getMerges() {
+            return merges;
+        }
+
+        public long getFinds() {
+            return finds;
+        }
+
+        // suma przejść do rodzica we wszystkich find
+        public long getHops() {
+            return hops;
+        }
+
+        public double getAverageHops() {
+            return finds == 0 ? 0 : (double) hops / finds;
+        }
+
+        // rozkład liczby przejść do rodzica na jedno find (kubełki potęg dwójki)
+        public long[] getHopHistogram() {
+            return hopHistogram.clone();
+        }
+
+        // rozkład liczby zapisów kompresji ścieżki na jedno find (kubełki potęg dwójki)
+        public long[] getCompressionWriteHistogram() {
+            return writeHistogram.clone();
+        }
+
+        // heightHistogram[h] = liczba drzew o wysokości h (w chwili migawki)
+        public long[] getTreeHeightHistogram() {
+            return heightHistogram.clone();
+        }
+
+        @Override
+        public String toString() {
+            return "unions=" + unions + ", merges=" + merges + ", finds=" + finds
+                    + ", avgHops=" + String.format("%.3f", getAverageHops())
+                    + ", hops=" + Arrays.toString(trim(hopHistogram))
+                    + ", writes=" + Arrays.toString(trim(writeHistogram))
+                    + ", heights=" + Arrays.toString(trim(heightHistogram));
+        }
+
+        private static long[] trim(long[] histogram) {
+            int length = histogram.length;
+            while (length > 1 && histogram[length - 1] == 0) length--;
+            return Arrays.copyOf(histogram, length);
+        }
+    }
+
+    static int bucket(int value) {
+        return 32 - Integer.numberOfLeadingZeros(value);
+    }
+
+    // wysokość każdego drzewa w czasie liniowym: głębokość i korzeń elementu liczone raz i zapamiętywane
+    private static long[] heightHistogram(int n, IntUnaryOperator parent) {
+        int[] depth = new int[n];
+        int[] root = new int[n];
+        Arrays.fill(depth, -1);
+        for (int i = 0; i < n; i++) {
+            if (depth[i] >= 0) continue;
+            // idziemy w górę do korzenia albo elementu o znanej głębokości
+            int j = i;
+            int steps = 0;
+            while (depth[j] < 0 && parent.applyAsInt(j) != j) {
+                j = parent.applyAsInt(j);
+                steps++;
+            }
+            if (depth[j] < 0) { // j to korzeń
+                depth[j] = 0;
+                root[j] = j;
+            }
+            // drugie przejście uzupełnia ścieżkę
+            int d = depth[j] + steps;
+            int k = i;
+            for (int s = steps; s > 0; s--) {
+                depth[k] = d--;
+                root[k] = root[j];
+                k = parent.applyAsInt(k);
+            }
+        }
+
+        int[] height = new int[n]; // ważne dla korzeni
+        int maxHeight = 0;
+        for (int i = 0; i < n; i++) {
+            height[root[i]] = Math.max(height[root[i]], depth[i]);
+            maxHeight = Math.max(maxHeight, depth[i]);
+        }
+        long[] histogram = new long[maxHeight + 1];
+        for (int i = 0; i < n; i++) {
+            if (root[i] == i) histogram[height[i]]++;
+        }
+        return histogram;
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+}
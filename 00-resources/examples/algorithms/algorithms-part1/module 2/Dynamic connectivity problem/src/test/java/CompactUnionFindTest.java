@@ -0,0 +1,50 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+public class CompactUnionFindTest {
+
+    @Test
+    public void testCompactUnionFind() {
+        CompactUnionFind uf = new CompactUnionFind(5);
+
+        assertEquals(5, uf.getCount());
+        assertFalse(uf.isConnected(0, 1));
+
+        uf.union(0, 1);
+        assertTrue(uf.isConnected(0, 1));
+        assertEquals(4, uf.getCount());
+        assertEquals(uf.find(0), uf.find(1));
+
+        uf.union(1, 2);
+        uf.union(3, 4);
+        assertTrue(uf.isConnected(0, 2));
+        assertFalse(uf.isConnected(0, 3));
+        assertEquals(2, uf.getCount());
+
+        // 3 bity na rodzica (n - 1 = 4) + 5 bitów rangi
+        assertEquals(8, uf.getBitsPerElement());
+    }
+
+    @Test
+    public void testEntriesCrossingWordBoundaries() {
+        // 1000 elementów -> 10 + 5 = 15 bitów, wpisy często przechodzą przez granicę słowa long
+        int n = 1000;
+        CompactUnionFind compact = new CompactUnionFind(n);
+        UnionFind plain = new UnionFind(n);
+        Random random = new Random(9);
+        for (int i = 0; i < 700; i++) {
+            int p = random.nextInt(n);
+            int q = random.nextInt(n);
+            compact.union(p, q);
+            plain.union(p, q);
+        }
+
+        assertEquals(plain.getCount(), compact.getCount());
+        for (int i = 0; i < n; i++) {
+            int j = random.nextInt(n);
+            assertEquals(plain.isConnected(i, j), compact.isConnected(i, j));
+        }
+    }
+}
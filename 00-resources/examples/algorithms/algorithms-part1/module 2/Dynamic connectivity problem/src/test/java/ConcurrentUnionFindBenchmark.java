@@ -0,0 +1,71 @@
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+// Prosty pomiar skalowania ConcurrentUnionFind względem liczby wątków.
+// Uruchomienie: mvn test-compile, potem
+//   java -cp target/classes:target/test-classes ConcurrentUnionFindBenchmark [n] [krawędzie]
+public class ConcurrentUnionFindBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int edges = args.length > 1 ? Integer.parseInt(args[1]) : 20_000_000;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        int[] ps = new int[edges];
+        int[] qs = new int[edges];
+        Random random = new Random(1);
+        for (int i = 0; i < edges; i++) {
+            ps[i] = random.nextInt(n);
+            qs[i] = random.nextInt(n);
+        }
+
+        long sequentialNanos = Long.MAX_VALUE;
+        for (int round = 0; round < 3; round++) {
+            UnionFind uf = new UnionFind(n);
+            long start = System.nanoTime();
+            for (int i = 0; i < edges; i++) {
+                uf.union(ps[i], qs[i]);
+            }
+            sequentialNanos = Math.min(sequentialNanos, System.nanoTime() - start);
+        }
+        System.out.printf("UnionFind (1 wątek):          %8.1f ms%n", sequentialNanos / 1e6);
+
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 3; round++) {
+                best = Math.min(best, run(n, ps, qs, threads));
+            }
+            System.out.printf("ConcurrentUnionFind (%2d wątków): %8.1f ms, przyspieszenie %.2fx%n",
+                    threads, best / 1e6, (double) sequentialNanos / best);
+        }
+    }
+
+    private static long run(int n, final int[] ps, final int[] qs, int threads) throws InterruptedException {
+        final ConcurrentUnionFind uf = new ConcurrentUnionFind(n);
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        final int chunk = (ps.length + threads - 1) / threads;
+        for (int t = 0; t < threads; t++) {
+            final int from = t * chunk;
+            final int to = Math.min(ps.length, from + chunk);
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = from; i < to; i++) {
+                    uf.union(ps[i], qs[i]);
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return System.nanoTime() - begin;
+    }
+}
@@ -0,0 +1,88 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConcurrentUnionFindTest {
+
+    @Test
+    public void testConcurrentUnionFind() {
+        ConcurrentUnionFind uf = new ConcurrentUnionFind(5);
+
+        assertEquals(5, uf.getCount());
+        assertFalse(uf.isConnected(0, 1));
+
+        uf.union(0, 1);
+        assertTrue(uf.isConnected(0, 1));
+        assertEquals(4, uf.getCount());
+        assertEquals(uf.find(0), uf.find(1));
+
+        uf.union(1, 2);
+        uf.union(3, 4);
+        uf.union(2, 0); // już połączone
+        assertTrue(uf.isConnected(0, 2));
+        assertFalse(uf.isConnected(0, 3));
+        assertEquals(2, uf.getCount());
+    }
+
+    @Test
+    public void testStressAgainstSequentialUnionFind() throws Exception {
+        final int n = 20_000;
+        final int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        final int edgesPerThread = 15_000;
+
+        final int[][] ps = new int[threads][edgesPerThread];
+        final int[][] qs = new int[threads][edgesPerThread];
+        Random random = new Random(42);
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < edgesPerThread; i++) {
+                ps[t][i] = random.nextInt(n);
+                qs[t][i] = random.nextInt(n);
+            }
+        }
+
+        final ConcurrentUnionFind concurrent = new ConcurrentUnionFind(n);
+        final CountDownLatch start = new CountDownLatch(1);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int id = t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < edgesPerThread; i++) {
+                        concurrent.union(ps[id][i], qs[id][i]);
+                        // własna krawędź musi być widoczna zaraz po union
+                        if (!concurrent.isConnected(ps[id][i], qs[id][i])) {
+                            throw new AssertionError("krawędź " + ps[id][i] + "-" + qs[id][i] + " zgubiona");
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertNull(failure.get());
+
+        UnionFind sequential = new UnionFind(n);
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < edgesPerThread; i++) {
+                sequential.union(ps[t][i], qs[t][i]);
+            }
+        }
+
+        assertEquals(sequential.getCount(), concurrent.getCount());
+        for (int i = 0; i < n; i++) {
+            assertEquals(sequential.find(i) == sequential.find(0), concurrent.isConnected(i, 0));
+            int other = random.nextInt(n);
+            assertEquals(sequential.isConnected(i, other), concurrent.isConnected(i, other));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ConnectedComponentsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testTextEdgeList() throws IOException {
+        Path input = folder.getRoot().toPath().resolve("edges.txt");
+        Files.write(input, "# krawędzie\n0 1\n1\t2\r\n\n3 4\n5 5".getBytes(StandardCharsets.UTF_8));
+
+        ConnectedComponents cc = new ConnectedComponents(7);
+        cc.readText(input);
+
+        assertEquals(4, cc.getEdgeCount());
+        assertEquals(4, cc.getUnionFind().getCount()); // {0,1,2}, {3,4}, {5}, {6}
+        assertTrue(cc.getUnionFind().isConnected(0, 2));
+
+        long[] histogram = cc.sizeHistogram();
+        assertEquals(2, histogram[0]); // rozmiar 1
+        assertEquals(2, histogram[1]); // rozmiary 2..3
+    }
+
+    @Test
+    public void testBinaryEdgeListAndComponentIds() throws IOException {
+        Path input = folder.getRoot().toPath().resolve("edges.bin");
+        ByteBuffer edges = ByteBuffer.allocate(3 * 8).order(ByteOrder.LITTLE_ENDIAN);
+        edges.putInt(0).putInt(3).putInt(3).putInt(4).putInt(1).putInt(2);
+        Files.write(input, edges.array());
+
+        ConnectedComponents cc = new ConnectedComponents(5);
+        cc.readBinary(input);
+        assertEquals(2, cc.getUnionFind().getCount());
+
+        Path output = folder.getRoot().toPath().resolve("components.bin");
+        cc.writeComponentIds(output);
+        ByteBuffer ids = ByteBuffer.wrap(Files.readAllBytes(output)).order(ByteOrder.LITTLE_ENDIAN);
+        int[] componentOf = new int[5];
+        for (int i = 0; i < 5; i++) {
+            componentOf[i] = ids.getInt();
+        }
+        assertEquals(componentOf[0], componentOf[4]);
+        assertEquals(componentOf[1], componentOf[2]);
+        assertNotEquals(componentOf[0], componentOf[1]);
+    }
+
+    @Test(expected = IOException.class)
+    public void testIncompleteEdge() throws IOException {
+        Path input = folder.getRoot().toPath().resolve("broken.txt");
+        Files.write(input, "0 1\n2\n".getBytes(StandardCharsets.UTF_8));
+        new ConnectedComponents(3).readText(input);
+    }
+
+    @Test(expected = IOException.class)
+    public void testIncompleteEdgeBeforeComment() throws IOException {
+        // "1 # c" to wiersz z jedną liczbą, a nie początek krawędzi (1, 2)
+        Path input = folder.getRoot().toPath().resolve("comment.txt");
+        Files.write(input, "1 # c\n2\n".getBytes(StandardCharsets.UTF_8));
+        new ConnectedComponents(3).readText(input);
+    }
+}
@@ -0,0 +1,50 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GrowableUnionFindTest {
+
+    @Test
+    public void testGrowableUnionFind() {
+        GrowableUnionFind uf = new GrowableUnionFind(2);
+
+        // Test dodawania elementów ponad początkową pojemność
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i, uf.add());
+        }
+        assertEquals(5, uf.size());
+        assertEquals(5, uf.getCount());
+
+        // Test union
+        assertEquals(GrowableUnionFind.UnionResult.MERGED, uf.union(0, 1));
+        assertEquals(GrowableUnionFind.UnionResult.MERGED, uf.union(1, 2));
+        assertEquals(GrowableUnionFind.UnionResult.ALREADY_CONNECTED, uf.union(0, 2));
+        assertTrue(uf.isConnected(0, 2));
+        assertFalse(uf.isConnected(0, 3));
+        assertEquals(3, uf.getCount());
+
+        // nowy element dołącza jako osobny zbiór
+        int id = uf.add();
+        assertEquals(4, uf.getCount());
+        assertEquals(GrowableUnionFind.UnionResult.MERGED, uf.union(id, 4));
+        assertTrue(uf.isConnected(5, 4));
+    }
+
+    @Test
+    public void testUnknownElements() {
+        GrowableUnionFind uf = new GrowableUnionFind(0);
+        uf.add();
+        uf.add();
+
+        assertEquals(GrowableUnionFind.UnionResult.UNKNOWN_ELEMENT, uf.union(0, 2));
+        assertEquals(GrowableUnionFind.UnionResult.UNKNOWN_ELEMENT, uf.union(-1, 0));
+        assertEquals(2, uf.getCount());
+        assertFalse(uf.contains(2));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testFindUnknownElement() {
+        GrowableUnionFind uf = new GrowableUnionFind();
+        uf.add();
+        uf.find(1);
+    }
+}
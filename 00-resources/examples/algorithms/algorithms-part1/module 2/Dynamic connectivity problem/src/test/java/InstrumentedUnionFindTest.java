@@ -0,0 +1,108 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+public class InstrumentedUnionFindTest {
+
+    @Test
+    public void testInstrumentedUnionFind() {
+        InstrumentedUnionFind uf = new InstrumentedUnionFind(5);
+
+        uf.union(0, 1);
+        uf.union(1, 0); // już połączone
+        uf.union(3, 4);
+        uf.union(0, 9); // poza zakresem - nie liczy się
+        assertTrue(uf.isConnected(0, 1));
+
+        UnionFindStats.Snapshot snapshot = uf.snapshot();
+        assertEquals(3, snapshot.getUnions());
+        assertEquals(2, snapshot.getMerges());
+        assertEquals(8, snapshot.getFinds()); // 2 na każde union i isConnected
+
+        // drzewa: {0,1} i {3,4} mają wysokość 1, {2} wysokość 0
+        assertArrayEquals(new long[] {1, 2}, snapshot.getTreeHeightHistogram());
+
+        long[] hops = snapshot.getHopHistogram();
+        long total = 0;
+        for (long bucket : hops) {
+            total += bucket;
+        }
+        assertEquals(snapshot.getFinds(), total);
+    }
+
+    @Test
+    public void testCompressionWritesAreCounted() {
+        InstrumentedUnionFind uf = new InstrumentedUnionFind(8);
+        // drzewo o wysokości 3 z ważenia: pary, czwórki, ósemka
+        uf.union(0, 1);
+        uf.union(2, 3);
+        uf.union(0, 2);
+        uf.union(4, 5);
+        uf.union(6, 7);
+        uf.union(4, 6);
+        uf.union(0, 4);
+        assertArrayEquals(new long[] {0, 0, 0, 1}, uf.snapshot().getTreeHeightHistogram());
+
+        UnionFindStats.Snapshot before = uf.snapshot();
+        uf.find(7); // 7 -> 6 -> 4 -> 0: path halving przepina 7 na 4
+        UnionFindStats.Snapshot after = uf.snapshot();
+
+        assertEquals(before.getFinds() + 1, after.getFinds());
+        assertEquals(before.getHops() + 2, after.getHops());
+        long[] writesBefore = before.getCompressionWriteHistogram();
+        long[] writesAfter = after.getCompressionWriteHistogram();
+        assertEquals(writesBefore[UnionFindStats.bucket(1)] + 1, writesAfter[UnionFindStats.bucket(1)]);
+    }
+
+    @Test
+    public void testParallelUnionAllCountsMerges() {
+        int n = 1_000;
+        int edges = 4 << 16; // cztery fragmenty po MIN_EDGES_PER_CHUNK krawędzi
+        SplittableRandom random = new SplittableRandom(7);
+        int[] ps = new int[edges];
+        int[] qs = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            ps[i] = random.nextInt(n);
+            qs[i] = random.nextInt(n);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            InstrumentedUnionFind uf = new InstrumentedUnionFind(n);
+            uf.unionAll(ps, qs, pool);
+            assertEquals(n - uf.getCount(), uf.snapshot().getMerges());
+            assertTrue(uf.snapshot().getUnions() >= uf.snapshot().getMerges());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testInstrumentedConcurrentUnionFind() throws InterruptedException {
+        final InstrumentedConcurrentUnionFind uf = new InstrumentedConcurrentUnionFind(1_000);
+        Thread[] workers = new Thread[4];
+        for (int t = 0; t < workers.length; t++) {
+            final int offset = t;
+            workers[t] = new Thread(() -> {
+                for (int i = offset; i + 1 < 1_000; i += 4) {
+                    uf.union(i, i + 1);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        UnionFindStats.Snapshot snapshot = uf.snapshot();
+        assertEquals(999, snapshot.getUnions());
+        assertEquals(999, snapshot.getMerges());
+        assertEquals(1, uf.getCount());
+        long trees = 0;
+        for (long bucket : snapshot.getTreeHeightHistogram()) {
+            trees += bucket;
+        }
+        assertEquals(1, trees);
+    }
+}
@@ -0,0 +1,37 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class KeyedUnionFindTest {
+
+    @Test
+    public void testKeyedUnionFind() {
+        KeyedUnionFind<String> uf = new KeyedUnionFind<>();
+
+        assertFalse(uf.isConnected("Kraków", "Warszawa"));
+        assertEquals("Kraków", uf.find("Kraków"));
+
+        uf.union("Kraków", "Warszawa");
+        uf.union("Gdańsk", "Sopot");
+        assertTrue(uf.isConnected("Kraków", "Warszawa"));
+        assertFalse(uf.isConnected("Kraków", "Sopot"));
+        assertEquals(4, uf.size());
+        assertEquals(2, uf.getCount());
+
+        // równe, ale nie identyczne klucze trafiają w ten sam element
+        uf.union(new String("Warszawa"), "Sopot");
+        assertTrue(uf.isConnected("Kraków", "Gdańsk"));
+        assertEquals(uf.find("Gdańsk"), uf.find("Kraków"));
+        assertEquals(1, uf.getCount());
+    }
+
+    @Test
+    public void testRehash() {
+        KeyedUnionFind<Integer> uf = new KeyedUnionFind<>(0);
+        for (int i = 1; i < 10_000; i++) {
+            uf.union(i - 1, i);
+        }
+        assertEquals(10_000, uf.size());
+        assertEquals(1, uf.getCount());
+        assertTrue(uf.isConnected(0, 9_999));
+    }
+}
@@ -0,0 +1,113 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class KruskalTest {
+
+    @Test
+    public void testMinimumSpanningTree() {
+        //    0 --1.0-- 1
+        //    |  \      |
+        //   4.0  3.0  2.0
+        //    |      \  |
+        //    3 --5.0-- 2
+        int[] us = {0, 1, 0, 0, 3};
+        int[] vs = {1, 2, 2, 3, 2};
+        double[] weights = {1.0, 2.0, 3.0, 4.0, 5.0};
+
+        Kruskal.Result result = Kruskal.minimumSpanningForest(4, us, vs, weights);
+        assertArrayEquals(new int[] {0, 1, 3}, result.getEdges());
+        assertEquals(7.0, result.getTotalWeight(), 1e-9);
+        assertEquals(1, result.getComponentCount());
+    }
+
+    @Test
+    public void testForestAndNegativeWeights() {
+        int[] us = {0, 2, 3, 0};
+        int[] vs = {1, 3, 4, 1};
+        double[] weights = {-2.5, 0.0, -0.0, -3.0};
+
+        Kruskal.Result result = Kruskal.minimumSpanningForest(6, us, vs, weights);
+        assertEquals(3, result.getComponentCount()); // {0,1}, {2,3,4}, {5}
+        assertEquals(-3.0, result.getTotalWeight(), 1e-9);
+        assertEquals(3, result.getEdges()[0]);
+    }
+
+    @Test
+    public void testTiesCloserThanFloatPrecision() {
+        // wagi różnią się dopiero poza precyzją float
+        int[] us = {0, 0};
+        int[] vs = {1, 1};
+        double[] weights = {1.0 + 1e-12, 1.0};
+
+        Kruskal.Result result = Kruskal.minimumSpanningForest(2, us, vs, weights);
+        assertArrayEquals(new int[] {1}, result.getEdges());
+    }
+
+    @Test(timeout = 10_000)
+    public void testUnitWeights() {
+        // same równe wagi - dawniej seria remisów sortowana kwadratowo
+        int n = 100_000;
+        int m = 400_000;
+        Random random = new Random(3);
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        double[] weights = new double[m];
+        Arrays.fill(weights, 1.0);
+        for (int i = 0; i < m; i++) {
+            us[i] = i < n - 1 ? i : random.nextInt(n);
+            vs[i] = i < n - 1 ? i + 1 : random.nextInt(n);
+        }
+
+        Kruskal.Result result = Kruskal.minimumSpanningForest(n, us, vs, weights);
+        assertEquals(1, result.getComponentCount());
+        assertEquals(n - 1, result.getTotalWeight(), 1e-9);
+        // przy równych wagach krawędzie idą w kolejności wejścia, więc wygrywa ścieżka
+        assertEquals(n - 2, result.getEdges()[n - 2]);
+    }
+
+    @Test
+    public void testRandomGraphAgainstPrim() {
+        int n = 200;
+        Random random = new Random(5);
+        double[][] matrix = new double[n][n];
+        for (double[] row : matrix) {
+            Arrays.fill(row, Double.POSITIVE_INFINITY);
+        }
+        int m = 3_000;
+        int[] us = new int[m];
+        int[] vs = new int[m];
+        double[] weights = new double[m];
+        for (int i = 0; i < m; i++) {
+            us[i] = i < n - 1 ? i : random.nextInt(n); // ścieżka gwarantuje spójność
+            vs[i] = i < n - 1 ? i + 1 : random.nextInt(n);
+            weights[i] = random.nextDouble() * 100;
+            matrix[us[i]][vs[i]] = Math.min(matrix[us[i]][vs[i]], weights[i]);
+            matrix[vs[i]][us[i]] = matrix[us[i]][vs[i]];
+        }
+
+        // Prim w O(n^2) jako odpowiedź wzorcowa
+        boolean[] inTree = new boolean[n];
+        double[] best = new double[n];
+        Arrays.fill(best, Double.POSITIVE_INFINITY);
+        best[0] = 0;
+        double expected = 0;
+        for (int step = 0; step < n; step++) {
+            int next = -1;
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && (next < 0 || best[v] < best[next])) next = v;
+            }
+            inTree[next] = true;
+            expected += best[next];
+            for (int v = 0; v < n; v++) {
+                if (!inTree[v] && v != next) best[v] = Math.min(best[v], matrix[next][v]);
+            }
+        }
+
+        Kruskal.Result result = Kruskal.minimumSpanningForest(n, us, vs, weights);
+        assertEquals(n - 1, result.getEdges().length);
+        assertEquals(expected, result.getTotalWeight(), 1e-6);
+    }
+}
@@ -0,0 +1,56 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LongUnionFindTest {
+
+    @Test
+    public void testLongUnionFind() {
+        LongUnionFind uf = new LongUnionFind();
+        long a = 9_000_000_000_123L;
+        long b = -42L;
+        long c = Long.MAX_VALUE;
+        long d = 0L;
+
+        // Test początkowego stanu - klucze pojawiają się dopiero w union
+        assertEquals(0, uf.getCount());
+        assertFalse(uf.isConnected(a, b));
+        assertEquals(a, uf.find(a));
+
+        // Test union
+        uf.union(a, b);
+        assertTrue(uf.isConnected(a, b));
+        assertEquals(uf.find(a), uf.find(b));
+        assertEquals(2, uf.size());
+        assertEquals(1, uf.getCount());
+
+        uf.union(c, d);
+        assertFalse(uf.isConnected(a, c));
+        assertEquals(2, uf.getCount());
+
+        uf.union(b, d);
+        assertTrue(uf.isConnected(a, c));
+        assertEquals(1, uf.getCount());
+    }
+
+    @Test
+    public void testManyKeysAgainstUnionFind() {
+        int n = 50_000;
+        long stride = 0x9E3779B97F4A7C15L; // rozrzuca klucze po całym zakresie long
+        LongUnionFind keyed = new LongUnionFind();
+        UnionFind dense = new UnionFind(n);
+
+        for (int i = 0; i < n; i++) {
+            // co trzeci element łączy sam ze sobą, więc zostaje wiele składowych
+            int j = i % 3 == 0 ? i : i / 2;
+            keyed.union(i * stride, j * stride);
+            dense.union(i, j);
+        }
+
+        for (int i = 0; i < n; i += 7) {
+            int j = (i * 31) % n;
+            assertEquals(dense.isConnected(i, j), keyed.isConnected(i * stride, j * stride));
+        }
+        assertEquals(n, keyed.size());
+        assertEquals(dense.getCount(), keyed.getCount());
+    }
+}
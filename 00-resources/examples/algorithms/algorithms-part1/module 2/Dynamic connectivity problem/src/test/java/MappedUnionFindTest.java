@@ -0,0 +1,62 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedUnionFindTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testMappedUnionFind() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("uf.bin");
+        try (MappedUnionFind uf = MappedUnionFind.create(file, 5)) {
+            assertEquals(5, uf.getCount());
+            assertFalse(uf.isConnected(0, 1));
+
+            uf.union(0, 1);
+            uf.union(1, 2);
+            uf.union(3, 4);
+            assertTrue(uf.isConnected(0, 2));
+            assertFalse(uf.isConnected(0, 3));
+            assertEquals(2, uf.getCount());
+        }
+    }
+
+    @Test
+    public void testReopenWithoutRebuild() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("uf.bin");
+        int n = 10_000;
+        // małe segmenty (2^10 elementów), żeby sprawdzić adresowanie między segmentami
+        try (MappedUnionFind uf = MappedUnionFind.create(file, n, 10)) {
+            for (int i = 0; i + 1000 < n; i++) {
+                if (i % 5 != 0) uf.union(i, i + 1000);
+            }
+        }
+
+        UnionFind expected = new UnionFind(n);
+        for (int i = 0; i + 1000 < n; i++) {
+            if (i % 5 != 0) expected.union(i, i + 1000);
+        }
+
+        try (MappedUnionFind uf = MappedUnionFind.open(file, 10)) {
+            assertEquals(n, uf.size());
+            assertEquals(expected.getCount(), uf.getCount());
+            for (int i = 0; i < n; i += 3) {
+                assertEquals(expected.isConnected(i, (i + 4321) % n), uf.isConnected(i, (i + 4321) % n));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testOpenRejectsForeignFile() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("other.bin");
+        Files.write(file, new byte[] {1, 2, 3});
+        MappedUnionFind.open(file).close();
+    }
+}
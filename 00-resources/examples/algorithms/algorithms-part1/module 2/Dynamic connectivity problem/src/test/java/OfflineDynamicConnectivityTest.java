@@ -0,0 +1,76 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class OfflineDynamicConnectivityTest {
+
+    @Test
+    public void testOfflineDynamicConnectivity() {
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(4);
+
+        int q0 = dc.query(0, 1);
+        dc.addEdge(0, 1);
+        dc.addEdge(1, 2);
+        int q1 = dc.query(0, 2);
+        dc.removeEdge(1, 0);
+        int q2 = dc.query(0, 2);
+        int q3 = dc.query(1, 2);
+        int q4 = dc.query(3, 3);
+
+        boolean[] answers = dc.solve();
+        assertFalse(answers[q0]);
+        assertTrue(answers[q1]);
+        assertFalse(answers[q2]);
+        assertTrue(answers[q3]);
+        assertTrue(answers[q4]);
+    }
+
+    @Test
+    public void testRandomLogAgainstRecomputation() {
+        int n = 30;
+        Random random = new Random(3);
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(n);
+        List<int[]> edges = new ArrayList<>();
+        List<Boolean> expected = new ArrayList<>();
+
+        for (int step = 0; step < 3_000; step++) {
+            int kind = random.nextInt(3);
+            if (kind == 0 || edges.isEmpty()) {
+                int[] edge = {random.nextInt(n), random.nextInt(n)};
+                edges.add(edge);
+                dc.addEdge(edge[0], edge[1]);
+            } else if (kind == 1) {
+                int[] edge = edges.remove(random.nextInt(edges.size()));
+                dc.removeEdge(edge[0], edge[1]);
+            } else {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                dc.query(p, q);
+                // odpowiedź wzorcowa: UnionFind budowany od zera z aktualnych krawędzi
+                UnionFind uf = new UnionFind(n);
+                for (int[] edge : edges) {
+                    uf.union(edge[0], edge[1]);
+                }
+                expected.add(uf.isConnected(p, q));
+            }
+        }
+
+        boolean[] answers = dc.solve();
+        assertEquals(expected.size(), answers.length);
+        for (int i = 0; i < answers.length; i++) {
+            assertEquals("zapytanie " + i, expected.get(i), answers[i]);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRemovingMissingEdge() {
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(3);
+        dc.addEdge(0, 1);
+        dc.removeEdge(1, 2);
+        dc.query(0, 1);
+        dc.solve();
+    }
+}
@@ -0,0 +1,43 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PercolationTest {
+
+    @Test
+    public void testPercolation() {
+        Percolation percolation = new Percolation(3);
+        assertFalse(percolation.percolates());
+
+        percolation.open(0, 1);
+        percolation.open(1, 1);
+        assertTrue(percolation.isFull(1, 1));
+        assertFalse(percolation.percolates());
+
+        percolation.open(2, 0);
+        assertFalse(percolation.isFull(2, 0));
+        assertFalse(percolation.percolates());
+
+        percolation.open(2, 1);
+        assertTrue(percolation.percolates());
+        assertTrue(percolation.isFull(2, 0));
+        assertEquals(4, percolation.getOpenCount());
+    }
+
+    @Test
+    public void testThresholdEstimate() {
+        PercolationStats stats = new PercolationStats(40, 200, 11);
+
+        // próg perkolacji dla siatki kwadratowej to ok. 0.5927
+        assertEquals(0.5927, stats.mean(), 0.02);
+        assertTrue(stats.confidenceLo() < stats.mean());
+        assertTrue(stats.confidenceHi() > stats.mean());
+
+        // ten sam seed - ten sam wynik niezależnie od podziału na wątki
+        assertEquals(stats.mean(), new PercolationStats(40, 200, 11).mean(), 0.0);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testOutsideGrid() {
+        new Percolation(2).open(2, 0);
+    }
+}
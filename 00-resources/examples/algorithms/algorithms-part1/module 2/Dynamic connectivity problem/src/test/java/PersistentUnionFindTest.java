@@ -0,0 +1,71 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+public class PersistentUnionFindTest {
+
+    @Test
+    public void testPersistentUnionFind() {
+        PersistentUnionFind v0 = new PersistentUnionFind(5);
+        PersistentUnionFind v1 = v0.union(0, 1);
+        PersistentUnionFind v2 = v1.union(1, 2).union(3, 4);
+
+        // Test nowej wersji
+        assertTrue(v2.isConnected(0, 2));
+        assertFalse(v2.isConnected(0, 3));
+        assertEquals(2, v2.getCount());
+
+        // stare wersje są nienaruszone
+        assertFalse(v0.isConnected(0, 1));
+        assertEquals(5, v0.getCount());
+        assertTrue(v1.isConnected(0, 1));
+        assertFalse(v1.isConnected(1, 2));
+        assertEquals(4, v1.getCount());
+
+        // union w obrębie zbioru nie tworzy nowej wersji
+        assertSame(v2, v2.union(0, 2));
+    }
+
+    @Test
+    public void testEveryVersionAgainstUnionFind() {
+        int n = 2_000;
+        Random random = new Random(13);
+        int steps = 1_500;
+        int[] ps = new int[steps];
+        int[] qs = new int[steps];
+        PersistentUnionFind[] versions = new PersistentUnionFind[steps + 1];
+        versions[0] = new PersistentUnionFind(n);
+        for (int i = 0; i < steps; i++) {
+            ps[i] = random.nextInt(n);
+            qs[i] = random.nextInt(n);
+            versions[i + 1] = versions[i].union(ps[i], qs[i]);
+        }
+
+        // każdą wersję porównujemy z UnionFind odtworzonym z prefiksu krawędzi
+        UnionFind expected = new UnionFind(n);
+        for (int v = 0; v <= steps; v++) {
+            if (v > 0) expected.union(ps[v - 1], qs[v - 1]);
+            if (v % 100 != 0) continue;
+            assertEquals(expected.getCount(), versions[v].getCount());
+            for (int k = 0; k < 200; k++) {
+                int p = random.nextInt(n);
+                int q = random.nextInt(n);
+                assertEquals(expected.isConnected(p, q), versions[v].isConnected(p, q));
+            }
+        }
+    }
+
+    @Test
+    public void testPersistentIntArray() {
+        PersistentIntArray empty = new PersistentIntArray(100_000);
+        PersistentIntArray a = empty.set(99_999, 7).set(0, 3);
+        PersistentIntArray b = a.set(99_999, 8);
+
+        assertEquals(0, empty.get(99_999));
+        assertEquals(7, a.get(99_999));
+        assertEquals(8, b.get(99_999));
+        assertEquals(3, b.get(0));
+        assertEquals(0, b.get(50_000));
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RollbackUnionFindTest {
+
+    @Test
+    public void testRollbackUnionFind() {
+        RollbackUnionFind uf = new RollbackUnionFind(5);
+
+        assertTrue(uf.union(0, 1));
+        int snapshot = uf.snapshot();
+
+        // Test połączeń po snapshot
+        assertTrue(uf.union(1, 2));
+        assertTrue(uf.union(3, 4));
+        assertFalse(uf.union(0, 2)); // już połączone - nic do cofnięcia
+        assertTrue(uf.isConnected(0, 2));
+        assertEquals(2, uf.getCount());
+
+        // Test cofania
+        uf.rollback(snapshot);
+        assertTrue(uf.isConnected(0, 1));
+        assertFalse(uf.isConnected(0, 2));
+        assertFalse(uf.isConnected(3, 4));
+        assertEquals(4, uf.getCount());
+
+        uf.rollback(0);
+        assertFalse(uf.isConnected(0, 1));
+        assertEquals(5, uf.getCount());
+    }
+
+    @Test
+    public void testRanksAreRestored() {
+        RollbackUnionFind uf = new RollbackUnionFind(8);
+        for (int round = 0; round < 3; round++) {
+            int snapshot = uf.snapshot();
+            for (int i = 1; i < 8; i++) {
+                uf.union(i - 1, i);
+            }
+            assertEquals(1, uf.getCount());
+            uf.rollback(snapshot);
+            assertEquals(8, uf.getCount());
+        }
+        for (int i = 0; i < 8; i++) {
+            assertEquals(i, uf.find(i));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRollbackToFutureSnapshot() {
+        RollbackUnionFind uf = new RollbackUnionFind(2);
+        uf.rollback(1);
+    }
+}
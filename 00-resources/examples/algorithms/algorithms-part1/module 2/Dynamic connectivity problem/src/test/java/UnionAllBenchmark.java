@@ -0,0 +1,40 @@
+import java.util.Random;
+
+// Porównanie UnionFind.unionAll z pętlą wywołującą union dla każdej krawędzi.
+// Uruchomienie: mvn test-compile, potem
+//   java -cp target/classes:target/test-classes UnionAllBenchmark [n] [krawędzie]
+public class UnionAllBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int edges = args.length > 1 ? Integer.parseInt(args[1]) : 30_000_000;
+
+        int[] ps = new int[edges];
+        int[] qs = new int[edges];
+        Random random = new Random(1);
+        for (int i = 0; i < edges; i++) {
+            ps[i] = random.nextInt(n);
+            qs[i] = random.nextInt(n);
+        }
+
+        for (int round = 0; round < 5; round++) {
+            UnionFind loop = new UnionFind(n);
+            long start = System.nanoTime();
+            for (int i = 0; i < edges; i++) {
+                loop.union(ps[i], qs[i]);
+            }
+            long loopNanos = System.nanoTime() - start;
+
+            UnionFind batch = new UnionFind(n);
+            start = System.nanoTime();
+            batch.unionAll(ps, qs);
+            long batchNanos = System.nanoTime() - start;
+
+            if (loop.getCount() != batch.getCount()) {
+                throw new IllegalStateException("różna liczba składowych: " + loop.getCount() + " != " + batch.getCount());
+            }
+            System.out.printf("runda %d: pętla union %8.1f ms, unionAll %8.1f ms (%.2fx), składowe %d%n",
+                    round, loopNanos / 1e6, batchNanos / 1e6, (double) loopNanos / batchNanos, batch.getCount());
+        }
+    }
+}
@@ -1,6 +1,14 @@
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
 public class UnionFindTest {
 
     @Test
@@ -26,4 +34,113 @@ public class UnionFindTest {
         assertFalse(uf.isConnected(0, 3));
         assertEquals(2, uf.getCount());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLongChainDoesNotOverflowStack() {
+        int n = 100_000;
+        UnionFind uf = new UnionFind(n);
+
+        // łańcuch 0-1-2-...-(n-1), dokładany od końca
+        for (int i = n - 1; i > 0; i--) {
+            uf.union(i, i - 1);
+        }
+
+        assertEquals(1, uf.getCount());
+        assertTrue(uf.isConnected(0, n - 1));
+    }
+
+    @Test
+    public void testOutOfRangeIsIgnored() {
+        UnionFind uf = new UnionFind(3);
+
+        uf.union(-1, 0);
+        uf.union(0, 3);
+        assertEquals(3, uf.getCount());
+    }
+
+    @Test
+    public void testUnionAllMatchesSequentialUnion() {
+        int n = 1_000;
+        int edges = 300_000;
+        int[] ps = new int[edges];
+        int[] qs = new int[edges];
+        Random random = new Random(7);
+        for (int i = 0; i < edges; i++) {
+            // rzadkie krawędzie, żeby na końcu zostało wiele składowych
+            ps[i] = random.nextInt(n);
+            qs[i] = random.nextInt(n) < 1 ? random.nextInt(n) : ps[i];
+        }
+
+        UnionFind sequential = new UnionFind(n);
+        for (int i = 0; i < edges; i++) {
+            sequential.union(ps[i], qs[i]);
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            UnionFind parallel = new UnionFind(n);
+            parallel.unionAll(ps, qs, pool);
+            assertEquals(sequential.getCount(), parallel.getCount());
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j += 37) {
+                    assertEquals(sequential.isConnected(i, j), parallel.isConnected(i, j));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnionAllFromStream() {
+        UnionFind uf = new UnionFind(5);
+
+        uf.unionAll(IntStream.of(0, 1, 1, 2, 3, 4, 7, 0));
+        assertTrue(uf.isConnected(0, 2));
+        assertFalse(uf.isConnected(0, 3));
+        assertEquals(2, uf.getCount());
+    }
+
+    @Test
+    public void testComponentSizeAndMembers() {
+        UnionFind uf = new UnionFind(6);
+        uf.union(0, 1);
+        uf.union(4, 1);
+        uf.union(2, 5);
+
+        assertEquals(3, uf.componentSize(1));
+        assertEquals(2, uf.componentSize(5));
+        assertEquals(1, uf.componentSize(3));
+
+        Set<Integer> members = new HashSet<>();
+        PrimitiveIterator.OfInt it = uf.members(4);
+        while (it.hasNext()) {
+            members.add(it.nextInt());
+        }
+        assertEquals(new HashSet<>(Arrays.asList(0, 1, 4)), members);
+
+        it = uf.members(3);
+        assertEquals(3, it.nextInt());
+        assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testComponentsExport() {
+        UnionFind uf = new UnionFind(6);
+        uf.union(0, 1);
+        uf.union(4, 1);
+        uf.union(2, 5);
+
+        UnionFind.Components components = uf.components();
+        assertEquals(3, components.getCount());
+        int[] offsets = components.getOffsets();
+        int[] members = components.getMembers();
+        assertEquals(6, offsets[components.getCount()]);
+
+        // zbiory numerowane w kolejności najmniejszego elementu, członkowie rosnąco
+        assertArrayEquals(new int[] {0, 1, 4}, Arrays.copyOfRange(members, offsets[0], offsets[1]));
+        assertArrayEquals(new int[] {2, 5}, Arrays.copyOfRange(members, offsets[1], offsets[2]));
+        assertArrayEquals(new int[] {3}, Arrays.copyOfRange(members, offsets[2], offsets[3]));
+        assertEquals(1, components.size(2));
+    }
+}
@@ -1,7 +1,48 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
 // Interfejs komendy
 public interface Command {
     void execute();
     void undo();
+
+    // Odbiorca, na którym działa komenda - komendy z tym samym odbiorcą
+    // muszą wykonać się w kolejności zlecenia
+    default Object receiver() {
+        return this;
+    }
+
+    // Czy execute() tej komendy robi to samo, co undo() komendy other
+    default boolean isInverseOf(Command other) {
+        return false;
+    }
 }
 
 // Klasa reprezentująca odbiorcę
@@ -61,6 +102,16 @@ public class LightOnCommand implements Command {
     public void undo() {
         light.turnOff();
     }
+
+    @Override
+    public Object receiver() {
+        return light;
+    }
+
+    @Override
+    public boolean isInverseOf(Command other) {
+        return other instanceof LightOffCommand && other.receiver() == light;
+    }
 }
 
 public class LightOffCommand implements Command {
@@ -79,6 +130,16 @@ public class LightOffCommand implements Command {
     public void undo() {
         light.turnOn();
     }
+
+    @Override
+    public Object receiver() {
+        return light;
+    }
+
+    @Override
+    public boolean isInverseOf(Command other) {
+        return other instanceof LightOnCommand && other.receiver() == light;
+    }
 }
 
 public class GarageDoorUpCommand implements Command {
@@ -97,6 +158,16 @@ public class GarageDoorUpCommand implements Command {
     public void undo() {
         garageDoor.down();
     }
+
+    @Override
+    public Object receiver() {
+        return garageDoor;
+    }
+
+    @Override
+    public boolean isInverseOf(Command other) {
+        return other instanceof GarageDoorDownCommand && other.receiver() == garageDoor;
+    }
 }
 
 public class GarageDoorDownCommand implements Command {
@@ -115,43 +186,957 @@ public class GarageDoorDownCommand implements Command {
     public void undo() {
         garageDoor.up();
     }
+
+    @Override
+    public Object receiver() {
+        return garageDoor;
+    }
+
+    @Override
+    public boolean isInverseOf(Command other) {
+        return other instanceof GarageDoorUpCommand && other.receiver() == garageDoor;
+    }
 }
 
 // Klasa wywołująca komendy
 public class RemoteControl {
-    private Command[] onCommands;
-    private Command[] offCommands;
-    private Command undoCommand;
+    private final SlotTable slots = new SlotTable();
+    private final CommandHistory history;
+    private CommandBus bus;
+    private CommandCoalescer coalescer;
 
     public RemoteControl() {
-        onCommands = new Command[7];
-        offCommands = new Command[7];
+        this(16);
+    }
 
-        Command noCommand = new NoCommand();
-        for (int i = 0; i < 7; i++) {
-            onCommands[i] = noCommand;
-            offCommands[i] = noCommand;
-        }
-        undoCommand = noCommand;
+    // Pilot pamiętający ostatnie historyDepth komend do cofnięcia
+    public RemoteControl(int historyDepth) {
+        history = new CommandHistory(historyDepth);
+    }
+
+    // Pilot, który poza wywołaniami synchronicznymi potrafi zlecać komendy do szyny
+    public RemoteControl(CommandBus bus) {
+        this();
+        this.bus = bus;
     }
 
+    // Sloty nie mają stałej liczby - tablica rośnie, a nieustawiony slot to NoCommand.
+    // setCommand można wołać w trakcie naciskania przycisków z innego wątku.
     public void setCommand(int slot, Command onCommand, Command offCommand) {
-        onCommands[slot] = onCommand;
-        offCommands[slot] = offCommand;
+        slots.set(slot, null, onCommand, offCommand);
+    }
+
+    public void setCommand(int slot, String name, Command onCommand, Command offCommand) {
+        slots.set(slot, name, onCommand, offCommand);
+    }
+
+    // Rejestruje komendy pod nazwą odbiorcy w pierwszym wolnym slocie i zwraca jego numer
+    public int setCommand(String name, Command onCommand, Command offCommand) {
+        return slots.register(name, onCommand, offCommand);
+    }
+
+    public void removeCommand(int slot) {
+        slots.remove(slot);
+    }
+
+    // numer slotu dla nazwy odbiorcy, -1 jeśli nie ma takiej nazwy
+    public int slotOf(String name) {
+        return slots.slotOf(name);
     }
 
     public void onButtonWasPushed(int slot) {
-        onCommands[slot].execute();
-        undoCommand = onCommands[slot];
+        execute(slots.get(slot).onCommand);
     }
 
     public void offButtonWasPushed(int slot) {
-        offCommands[slot].execute();
-        undoCommand = offCommands[slot];
+        execute(slots.get(slot).offCommand);
+    }
+
+    // Z ustawionym oknem komendy nie trafiają od razu do odbiorcy, tylko do CommandCoalescer.
+    // Historia (i dziennik) dostaje wtedy tylko komendy, które okno faktycznie wykonało -
+    // zniesione pary i powtórzenia nie mają czego cofać.
+    public void setCoalescer(CommandCoalescer coalescer) {
+        if (this.coalescer != null) {
+            this.coalescer.setListener(null);
+        }
+        this.coalescer = coalescer;
+        if (coalescer != null) {
+            coalescer.setListener(history::push);
+        }
+    }
+
+    private void execute(Command command) {
+        if (coalescer != null) {
+            coalescer.submit(command);
+        } else {
+            command.execute();
+            history.push(command, false);
+        }
+    }
+
+    public void onButtonWasPushed(String name) {
+        onButtonWasPushed(requireSlot(name));
+    }
+
+    public void offButtonWasPushed(String name) {
+        offButtonWasPushed(requireSlot(name));
+    }
+
+    private int requireSlot(String name) {
+        int slot = slots.slotOf(name);
+        if (slot < 0) {
+            throw new IllegalArgumentException("brak slotu dla odbiorcy: " + name);
+        }
+        return slot;
     }
 
     public void undoButtonWasPushed() {
-        undoCommand.undo();
+        undo(1);
+    }
+
+    public void redoButtonWasPushed() {
+        redo(1);
+    }
+
+    // Cofa / ponawia do n kroków, zwraca ile faktycznie wykonano.
+    // Kroki zlecone szyną nie są tu czekane - na nie czeka undoAsync / redoAsync.
+    public int undo(int n) {
+        return step(n, true, null);
+    }
+
+    public int redo(int n) {
+        return step(n, false, null);
+    }
+
+    // Future kończy się po wykonaniu wszystkich kroków (wyjątkiem, jeśli któryś się nie udał)
+    public CompletableFuture<Void> undoAsync(int n) {
+        List<CompletableFuture<Void>> steps = new ArrayList<>();
+        step(n, true, steps);
+        return CompletableFuture.allOf(steps.toArray(new CompletableFuture[0]));
+    }
+
+    public CompletableFuture<Void> redoAsync(int n) {
+        List<CompletableFuture<Void>> steps = new ArrayList<>();
+        step(n, false, steps);
+        return CompletableFuture.allOf(steps.toArray(new CompletableFuture[0]));
+    }
+
+    // Krok wraca tam, gdzie wykonała się komenda: zleconą szyną cofamy na pasie jej odbiorcy
+    // (nie wyprzedzi własnego wykonania), wykonaną synchronicznie - od razu na tym wątku.
+    // Miejsce na szynie rezerwujemy pod blokadą historii, więc historia i szyna widzą kroki
+    // w tej samej kolejności; na wolny slot (backpressure) czekamy już poza blokadą.
+    // Z oknem łączenia najpierw zamykamy otwarte okna, żeby cofać to, co już się wykonało.
+    private int step(int n, boolean undo, List<CompletableFuture<Void>> futures) {
+        if (coalescer != null) coalescer.flush();
+        int steps = 0;
+        for (; steps < n; steps++) {
+            Command command;
+            long ticket = -1;
+            synchronized (history) {
+                command = undo ? history.peekUndo() : history.peekRedo();
+                if (command == null) break;
+                if (undo ? history.isUndoQueued() : history.isRedoQueued()) {
+                    ticket = bus().reserve();
+                }
+                if (undo) {
+                    history.takeUndo();
+                } else {
+                    history.takeRedo();
+                }
+            }
+            Command step = undo ? new UndoCommand(command) : command;
+            if (ticket >= 0) {
+                CompletableFuture<Void> done = bus.publish(ticket, step);
+                if (futures != null) futures.add(done);
+            } else if (futures == null) {
+                step.execute();
+            } else {
+                try {
+                    step.execute();
+                    futures.add(CompletableFuture.completedFuture(null));
+                } catch (RuntimeException e) {
+                    futures.add(CompletableFuture.failedFuture(e));
+                }
+            }
+        }
+        return steps;
+    }
+
+    public void setJournal(CommandJournal journal) {
+        history.setJournal(journal);
+    }
+
+    // Cała pamiętana sesja jako jedna skompaktowana komenda
+    public MacroCommand recordedMacro() {
+        return history.toMacro();
+    }
+
+    // Wersje asynchroniczne - wolny odbiorca nie blokuje wątku, który naciska przyciski
+    public CompletableFuture<Void> onButtonWasPushedAsync(int slot) {
+        return submit(slots.get(slot).onCommand);
+    }
+
+    public CompletableFuture<Void> offButtonWasPushedAsync(int slot) {
+        return submit(slots.get(slot).offCommand);
+    }
+
+    // Historia i szyna widzą komendy w tej samej kolejności, także przy wielu wątkach:
+    // pod blokadą tylko rezerwacja numeru na szynie, czekanie na wolny slot już poza nią
+    private CompletableFuture<Void> submit(Command command) {
+        CommandBus bus = bus();
+        long ticket;
+        synchronized (history) {
+            ticket = bus.reserve();
+            history.push(command, true);
+        }
+        return bus.publish(ticket, command);
+    }
+
+    private CommandBus bus() {
+        if (bus == null) {
+            throw new IllegalStateException("pilot nie ma szyny komend");
+        }
+        return bus;
+    }
+
+    // Cofnięcie jako komenda - do wysłania szyną na pas odbiorcy
+    private static final class UndoCommand implements Command {
+        private final Command command;
+
+        UndoCommand(Command command) {
+            this.command = command;
+        }
+
+        @Override
+        public void execute() {
+            command.undo();
+        }
+
+        @Override
+        public void undo() {
+            command.execute();
+        }
+
+        @Override
+        public Object receiver() {
+            return command.receiver();
+        }
+    }
+}
+
+// Historia komend o stałej głębokości
+// - bufor cykliczny alokowany raz w konstruktorze, push tylko zapisuje referencję
+// - po przepełnieniu najstarsza komenda jest nadpisywana
+// - nowa komenda po cofnięciu kasuje możliwość ponowienia (jak w edytorach)
+// - metody są synchronizowane - komendy asynchroniczne trafiają tu z wielu wątków
+// - przy każdej komendzie pamiętamy, czy poszła szyną - cofnięcie musi pójść tą samą drogą
+public class CommandHistory {
+    private final Command[] ring;
+    private final boolean[] queued; // komenda zlecona przez CommandBus
+    private int start;     // indeks najstarszej pamiętanej komendy
+    private int size;      // liczba komend do cofnięcia
+    private int redoable;  // liczba cofniętych komend do ponowienia
+    private CommandJournal journal;
+
+    public CommandHistory(int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("głębokość historii musi być dodatnia: " + depth);
+        }
+        ring = new Command[depth];
+        queued = new boolean[depth];
+    }
+
+    // Dziennik, do którego trafia każde wykonanie, cofnięcie i ponowienie (opcjonalny)
+    public synchronized void setJournal(CommandJournal journal) {
+        this.journal = journal;
+    }
+
+    public void push(Command command) {
+        push(command, false);
+    }
+
+    public synchronized void push(Command command, boolean viaBus) {
+        if (command instanceof NoCommand) return; // pusty slot nie zajmuje miejsca w historii
+        if (journal != null) journal.append(command);
+        if (size == ring.length) {
+            start = (start + 1) % ring.length;
+        } else {
+            size++;
+        }
+        ring[(start + size - 1) % ring.length] = command;
+        queued[(start + size - 1) % ring.length] = viaBus;
+        redoable = 0;
+    }
+
+    public synchronized int undo(int n) {
+        int steps = 0;
+        for (Command command; steps < n && (command = takeUndo()) != null; steps++) {
+            command.undo();
+        }
+        return steps;
+    }
+
+    public synchronized int redo(int n) {
+        int steps = 0;
+        for (Command command; steps < n && (command = takeRedo()) != null; steps++) {
+            command.execute();
+        }
+        return steps;
+    }
+
+    // komenda, którą zwróci takeUndo / takeRedo (null, gdy nie ma), i czy poszła szyną
+    public synchronized Command peekUndo() {
+        return size == 0 ? null : ring[(start + size - 1) % ring.length];
+    }
+
+    public synchronized Command peekRedo() {
+        return redoable == 0 ? null : ring[(start + size) % ring.length];
+    }
+
+    public synchronized boolean isUndoQueued() {
+        return size > 0 && queued[(start + size - 1) % ring.length];
+    }
+
+    public synchronized boolean isRedoQueued() {
+        return redoable > 0 && queued[(start + size) % ring.length];
+    }
+
+    // Przesuwa historię o krok wstecz i zwraca komendę do cofnięcia (null, gdy nie ma czego
+    // cofać), ale jej nie wykonuje - robi to wołający, np. przez szynę komend
+    public synchronized Command takeUndo() {
+        if (size == 0) return null;
+        Command command = ring[(start + size - 1) % ring.length];
+        if (journal != null) journal.appendUndo(command);
+        size--;
+        redoable++;
+        return command;
+    }
+
+    public synchronized Command takeRedo() {
+        if (redoable == 0) return null;
+        Command command = ring[(start + size) % ring.length];
+        if (journal != null) journal.append(command);
+        size++;
+        redoable--;
+        return command;
+    }
+
+    // Komendy do cofnięcia, od najstarszej, jako skompaktowane makro
+    public synchronized MacroCommand toMacro() {
+        Command[] done = new Command[size];
+        for (int i = 0; i < size; i++) {
+            done[i] = ring[(start + i) % ring.length];
+        }
+        return new MacroCommand(done);
+    }
+}
+
+// Makro - kilka komend wykonywanych jako jedna
+// Serię kolejnych komend na tym samym odbiorcy zastępuje jej efekt netto: komendy w tym pliku
+// ustawiają stan odbiorcy (włącz/wyłącz, otwórz/zamknij), więc po serii on/off/on liczy się
+// tylko ostatnia, a cofnięcie całej serii to cofnięcie pierwszej.
+public class MacroCommand implements Command {
+    private final Command[] commands;
+
+    public MacroCommand(Command... commands) {
+        this.commands = compact(commands);
+    }
+
+    @Override
+    public void execute() {
+        for (Command command : commands) {
+            command.execute();
+        }
+    }
+
+    @Override
+    public void undo() {
+        for (int i = commands.length - 1; i >= 0; i--) {
+            commands[i].undo();
+        }
+    }
+
+    public int size() {
+        return commands.length;
+    }
+
+    private static Command[] compact(Command[] commands) {
+        Command[] result = new Command[commands.length];
+        int count = 0;
+        int i = 0;
+        while (i < commands.length) {
+            int end = i + 1;
+            while (end < commands.length && commands[end].receiver() == commands[i].receiver()) {
+                end++;
+            }
+            result[count++] = end - i == 1 ? commands[i] : new NetCommand(commands[i], commands[end - 1]);
+            i = end;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // Efekt netto serii: wykonanie = ostatnia komenda, cofnięcie = cofnięcie pierwszej
+    private static class NetCommand implements Command {
+        private final Command first;
+        private final Command last;
+
+        NetCommand(Command first, Command last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public void execute() {
+            last.execute();
+        }
+
+        @Override
+        public void undo() {
+            first.undo();
+        }
+
+        @Override
+        public Object receiver() {
+            return last.receiver();
+        }
+    }
+}
+
+// Zwarta, binarna postać komend dla dziennika: 1 bajt kodu operacji + 4 bajty id odbiorcy
+// Id odbiorców nadaje aplikacja i muszą być takie same po restarcie.
+public class CommandCodec {
+    public static final byte LIGHT_ON = 1;
+    public static final byte LIGHT_OFF = 2;
+    public static final byte GARAGE_DOOR_UP = 3;
+    public static final byte GARAGE_DOOR_DOWN = 4;
+
+    private final Map<Object, Integer> ids = new IdentityHashMap<>();
+    private final List<Object> receivers = new ArrayList<>();
+
+    public void register(int id, Object receiver) {
+        while (receivers.size() <= id) {
+            receivers.add(null);
+        }
+        receivers.set(id, receiver);
+        ids.put(receiver, id);
+    }
+
+    public byte opcode(Command command) {
+        if (command instanceof LightOnCommand) return LIGHT_ON;
+        if (command instanceof LightOffCommand) return LIGHT_OFF;
+        if (command instanceof GarageDoorUpCommand) return GARAGE_DOOR_UP;
+        if (command instanceof GarageDoorDownCommand) return GARAGE_DOOR_DOWN;
+        throw new IllegalArgumentException("komenda bez postaci binarnej: " + command.getClass().getSimpleName());
+    }
+
+    public int receiverId(Command command) {
+        Integer id = ids.get(command.receiver());
+        if (id == null) {
+            throw new IllegalArgumentException("niezarejestrowany odbiorca komendy " + command.getClass().getSimpleName());
+        }
+        return id;
+    }
+
+    public Command decode(byte opcode, int receiverId) {
+        Object receiver = receiverId < receivers.size() ? receivers.get(receiverId) : null;
+        if (receiver == null) {
+            throw new IllegalArgumentException("nieznany odbiorca: " + receiverId);
+        }
+        switch (opcode) {
+            case LIGHT_ON: return new LightOnCommand((Light) receiver);
+            case LIGHT_OFF: return new LightOffCommand((Light) receiver);
+            case GARAGE_DOOR_UP: return new GarageDoorUpCommand((GarageDoor) receiver);
+            case GARAGE_DOOR_DOWN: return new GarageDoorDownCommand((GarageDoor) receiver);
+            default: throw new IllegalArgumentException("nieznany kod operacji: " + opcode);
+        }
+    }
+
+    // Kod operacji, którą wykonuje undo danej komendy
+    public static byte inverse(byte opcode) {
+        switch (opcode) {
+            case LIGHT_ON: return LIGHT_OFF;
+            case LIGHT_OFF: return LIGHT_ON;
+            case GARAGE_DOOR_UP: return GARAGE_DOOR_DOWN;
+            case GARAGE_DOOR_DOWN: return GARAGE_DOOR_UP;
+            default: throw new IllegalArgumentException("nieznany kod operacji: " + opcode);
+        }
+    }
+}
+
+// Trwały dziennik komend
+// - zapis tylko na koniec pliku przez FileChannel, rekordy po 5 bajtów (kod + id odbiorcy)
+// - cofnięcie zapisujemy jako komendę odwrotną, więc dziennik zawiera same efekty
+// - group commit: wątek zapisujący co groupCommitMillis zrzuca wszystko, co się zebrało,
+//   i robi jedno fsync dla całej paczki; future z append kończy się po fsync
+// - komendy ustawiają stan odbiorcy, więc stan to ostatni kod dla każdego odbiorcy - co
+//   snapshotEvery rekordów zapisujemy go jako snapshot i czyścimy dziennik, dzięki czemu
+//   odtwarzanie trwa tyle, ile snapshot + ogon dziennika, a nie cała historia
+// - awaria między snapshotem a wyczyszczeniem dziennika jest niegroźna: ponowne ustawienie
+//   tego samego stanu niczego nie zmienia
+public class CommandJournal implements AutoCloseable {
+    private static final int RECORD_BYTES = 5;
+
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private final FileChannel channel;
+    private final CommandCodec codec;
+    private final int snapshotEvery;
+
+    // pola chronione przez this
+    private ByteBuffer pending = ByteBuffer.allocate(64 * RECORD_BYTES);
+    private List<CompletableFuture<Void>> waiting = new ArrayList<>();
+    private byte[] state = new byte[64]; // [id odbiorcy] -> ostatni kod, 0 - brak (kody są od 1)
+    private int sinceSnapshot;
+
+    private final Object flushLock = new Object();
+    private final Thread flusher;
+    private volatile boolean open = true;
+    private volatile boolean recovered;
+
+    public CommandJournal(Path directory, CommandCodec codec, long groupCommitMillis, int snapshotEvery) throws IOException {
+        Files.createDirectories(directory);
+        this.journalPath = directory.resolve("commands.journal");
+        this.snapshotPath = directory.resolve("commands.snapshot");
+        this.codec = codec;
+        this.snapshotEvery = snapshotEvery;
+        this.channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        this.flusher = new Thread(() -> {
+            while (open) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(groupCommitMillis));
+                flushQuietly();
+            }
+        }, "command-journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    // Odtwarza stan odbiorców ze snapshotu i dziennika, potem zaczyna przyjmować nowe wpisy.
+    // Zwraca liczbę wykonanych komend. Do tego czasu append rzuca IllegalStateException -
+    // wpis sprzed odtworzenia trafiłby przed ogon dziennika i nikt by go nie zrzucił.
+    public int recover() throws IOException {
+        if (recovered) {
+            throw new IllegalStateException("dziennik został już odtworzony");
+        }
+        int replayed = 0;
+        if (Files.exists(snapshotPath)) {
+            ByteBuffer snapshot = ByteBuffer.wrap(Files.readAllBytes(snapshotPath));
+            int entries = snapshot.getInt();
+            for (int i = 0; i < entries; i++) {
+                int receiverId = snapshot.getInt();
+                replayed += apply(snapshot.get(), receiverId);
+            }
+        }
+
+        // niepełny rekord na końcu to ślad po awarii w trakcie zapisu - odcinamy go
+        long size = channel.size() - channel.size() % RECORD_BYTES;
+        channel.truncate(size);
+        ByteBuffer records = ByteBuffer.allocate(64 * 1024 / RECORD_BYTES * RECORD_BYTES);
+        long position = 0;
+        while (position < size) {
+            int read = channel.read(records, position);
+            if (read < 0) break; // plik skrócony w trakcie odtwarzania
+            position += read;
+            records.flip();
+            while (records.remaining() >= RECORD_BYTES) {
+                byte opcode = records.get();
+                replayed += apply(opcode, records.getInt());
+            }
+            records.compact(); // krótki odczyt mógł uciąć rekord - reszta czeka na dalsze bajty
+        }
+        channel.position(size);
+        recovered = true;
+        flusher.start();
+        return replayed;
+    }
+
+    private int apply(byte opcode, int receiverId) {
+        codec.decode(opcode, receiverId).execute();
+        synchronized (this) {
+            remember(receiverId, opcode);
+        }
+        return 1;
+    }
+
+    // wołane pod this; ids odbiorców z CommandCodec są gęste, więc wystarcza zwykła tablica
+    private void remember(int receiverId, byte opcode) {
+        if (receiverId >= state.length) {
+            state = Arrays.copyOf(state, Math.max(state.length * 2, receiverId + 1));
+        }
+        state[receiverId] = opcode;
+    }
+
+    public CompletableFuture<Void> append(Command command) {
+        return appendRecord(codec.opcode(command), codec.receiverId(command));
+    }
+
+    public CompletableFuture<Void> appendUndo(Command command) {
+        return appendRecord(CommandCodec.inverse(codec.opcode(command)), codec.receiverId(command));
+    }
+
+    private synchronized CompletableFuture<Void> appendRecord(byte opcode, int receiverId) {
+        if (!open) {
+            throw new IllegalStateException("dziennik jest zamknięty");
+        }
+        if (!recovered) {
+            throw new IllegalStateException("dziennik nie został odtworzony - najpierw recover()");
+        }
+        if (pending.remaining() < RECORD_BYTES) {
+            ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+            pending.flip();
+            larger.put(pending);
+            pending = larger;
+        }
+        pending.put(opcode).putInt(receiverId);
+        remember(receiverId, opcode);
+        sinceSnapshot++;
+
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+        waiting.add(durable);
+        return durable;
+    }
+
+    // Zrzuca zebraną paczkę jednym write + fsync (wołane też przez wątek zapisujący)
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            ByteBuffer batch;
+            List<CompletableFuture<Void>> done;
+            byte[] snapshot = null;
+            synchronized (this) {
+                batch = pending;
+                done = waiting;
+                pending = ByteBuffer.allocate(batch.capacity());
+                waiting = new ArrayList<>();
+                if (sinceSnapshot >= snapshotEvery) {
+                    snapshot = state.clone();
+                    sinceSnapshot = 0;
+                }
+            }
+
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                if (!done.isEmpty()) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                done.forEach(future -> future.completeExceptionally(e));
+                throw e;
+            }
+            done.forEach(future -> future.complete(null));
+
+            if (snapshot != null) {
+                writeSnapshot(snapshot);
+            }
+        }
+    }
+
+    private void writeSnapshot(byte[] snapshot) throws IOException {
+        int entries = 0;
+        for (byte opcode : snapshot) {
+            if (opcode != 0) entries++;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(4 + entries * RECORD_BYTES);
+        buffer.putInt(entries);
+        for (int receiverId = 0; receiverId < snapshot.length; receiverId++) {
+            if (snapshot[receiverId] != 0) buffer.putInt(receiverId).put(snapshot[receiverId]);
+        }
+        buffer.flip();
+
+        // najpierw trwały snapshot pod tymczasową nazwą, potem atomowa podmiana
+        Path temporary = snapshotPath.resolveSibling("commands.snapshot.tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            // future z append dostały już wyjątek - wątek zapisujący próbuje dalej
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        open = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        channel.close();
+    }
+}
+
+// Tablica slotów pilota
+// - sloty leżą w kawałkach po 1024, katalog kawałków rośnie przez kopię (kopiujemy tylko
+//   wskaźniki do kawałków, nie sloty), więc dodanie slotu nie kopiuje całej tablicy
+// - slot to niezmienny obiekt podmieniany jednym zapisem volatile - odczyt przy naciśnięciu
+//   przycisku nie bierze blokady i widzi albo stare, albo nowe komendy, nigdy pół na pół
+// - zapisy (set/register/remove) są synchronizowane między sobą
+public class SlotTable {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final Slot EMPTY = new Slot(null, new NoCommand(), new NoCommand());
+
+    // Para komend w slocie i nazwa odbiorcy (może być null)
+    public static final class Slot {
+        final String name;
+        final Command onCommand;
+        final Command offCommand;
+
+        Slot(String name, Command onCommand, Command offCommand) {
+            this.name = name;
+            this.onCommand = onCommand;
+            this.offCommand = offCommand;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private volatile AtomicReferenceArray<Slot>[] chunks = new AtomicReferenceArray[1];
+    private final ConcurrentHashMap<String, Integer> byName = new ConcurrentHashMap<>();
+    private int nextFree; // najmniejszy slot, który może być wolny (chroniony przez this)
+
+    public Slot get(int slot) {
+        if (slot < 0) {
+            throw new IndexOutOfBoundsException("ujemny numer slotu: " + slot);
+        }
+        AtomicReferenceArray<Slot>[] directory = chunks;
+        int chunk = slot >>> CHUNK_BITS;
+        if (chunk >= directory.length || directory[chunk] == null) return EMPTY;
+        Slot entry = directory[chunk].get(slot & CHUNK_MASK);
+        return entry == null ? EMPTY : entry;
+    }
+
+    public synchronized void set(int slot, String name, Command onCommand, Command offCommand) {
+        if (slot < 0) {
+            throw new IndexOutOfBoundsException("ujemny numer slotu: " + slot);
+        }
+        Slot previous = get(slot);
+        chunkFor(slot).set(slot & CHUNK_MASK, new Slot(name, onCommand, offCommand));
+        // najpierw nowa nazwa, potem usunięcie starej - przy podmianie komend pod tą samą
+        // nazwą czytelnik nigdy nie widzi jej braku
+        if (name != null) {
+            byName.put(name, slot);
+        }
+        if (previous.name != null && !previous.name.equals(name)) {
+            byName.remove(previous.name, slot);
+        }
+    }
+
+    public synchronized int register(String name, Command onCommand, Command offCommand) {
+        while (get(nextFree) != EMPTY) {
+            nextFree++;
+        }
+        int slot = nextFree++;
+        set(slot, name, onCommand, offCommand);
+        return slot;
+    }
+
+    public synchronized void remove(int slot) {
+        Slot previous = get(slot);
+        if (previous == EMPTY) return;
+        if (previous.name != null) {
+            byName.remove(previous.name, slot);
+        }
+        chunks[slot >>> CHUNK_BITS].set(slot & CHUNK_MASK, null);
+        nextFree = Math.min(nextFree, slot);
+    }
+
+    public int slotOf(String name) {
+        Integer slot = byName.get(name);
+        return slot == null ? -1 : slot;
+    }
+
+    // kawałek dla slotu, w razie potrzeby powiększa katalog (wołane pod blokadą)
+    private AtomicReferenceArray<Slot> chunkFor(int slot) {
+        int chunk = slot >>> CHUNK_BITS;
+        AtomicReferenceArray<Slot>[] directory = chunks;
+        if (chunk >= directory.length) {
+            directory = Arrays.copyOf(directory, Math.max(chunk + 1, directory.length * 2));
+        } else if (directory[chunk] != null) {
+            return directory[chunk];
+        } else {
+            directory = directory.clone();
+        }
+        directory[chunk] = new AtomicReferenceArray<>(CHUNK_SIZE);
+        chunks = directory; // publikacja nowego katalogu
+        return directory[chunk];
+    }
+}
+
+// Pomiar czasu obsługi naciśnięcia przycisku przy 10^5 slotach, w trakcie gdy inny wątek
+// ciągle podmienia komendy. Użycie: java SlotDispatchBenchmark [liczba slotów]
+public class SlotDispatchBenchmark {
+    private static final int BATCH = 64;
+
+    public static void main(String[] args) throws InterruptedException {
+        int slotCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        RemoteControl remote = new RemoteControl();
+        for (int i = 0; i < slotCount; i++) {
+            remote.setCommand("odbiornik-" + i, new NoCommand(), new NoCommand());
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            SplittableRandom random = new SplittableRandom(1);
+            while (running.get()) {
+                int slot = random.nextInt(slotCount);
+                remote.setCommand(slot, "odbiornik-" + slot, new NoCommand(), new NoCommand());
+            }
+        });
+        writer.setDaemon(true);
+        writer.start();
+
+        SplittableRandom random = new SplittableRandom(7);
+        int[] order = new int[1 << 16];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = random.nextInt(slotCount);
+        }
+        measure("po numerze (rozgrzewka)", remote, order, false);
+        measure("po numerze", remote, order, false);
+        measure("po nazwie", remote, order, true);
+
+        running.set(false);
+        writer.join();
+    }
+
+    // czas jednego naciśnięcia liczony jako średnia w paczkach po BATCH naciśnięć
+    private static void measure(String label, RemoteControl remote, int[] order, boolean byName) {
+        String[] names = new String[order.length];
+        for (int i = 0; i < order.length; i++) {
+            names[i] = "odbiornik-" + order[i];
+        }
+        int rounds = 2_000;
+        long[] samples = new long[rounds];
+        for (int r = 0; r < rounds; r++) {
+            int base = (r * BATCH) & (order.length - 1);
+            long start = System.nanoTime();
+            for (int i = base; i < base + BATCH; i++) {
+                if (byName) {
+                    remote.onButtonWasPushed(names[i]);
+                } else {
+                    remote.onButtonWasPushed(order[i]);
+                }
+            }
+            samples[r] = (System.nanoTime() - start) / BATCH;
+        }
+        Arrays.sort(samples);
+        System.out.printf("%-26s p50 = %4d ns, p99 = %4d ns%n", label, samples[rounds / 2], samples[rounds * 99 / 100]);
+    }
+}
+
+// Okno łączenia komend przed wykonaniem
+// - pierwsza komenda dla odbiorcy otwiera okno windowMillis; do jego końca komendy czekają
+// - komenda odwrotna do ostatniej oczekującej (isInverseOf) znosi się z nią: on+off = nic
+// - powtórzenie tej samej komendy na tym samym odbiorcy jest pomijane - komendy w tym pliku
+//   ustawiają stan, więc drugie "włącz" niczego nie zmienia (bez tego on, on, off
+//   zostawiłoby jedno "włącz")
+// - po zamknięciu okna do odbiorcy trafia tylko to, co zostało
+// Znoszenie par zakłada to samo co undo: komenda odwrotna przywraca stan sprzed pierwszej.
+// Okna wykonują się na jednym wątku, więc kolejność komend jednego odbiorcy jest zachowana.
+public class CommandCoalescer implements AutoCloseable {
+    private final long windowNanos;
+    private final ScheduledExecutorService scheduler;
+    private final Map<Object, ArrayDeque<Command>> pending = new IdentityHashMap<>(); // chronione przez this
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private volatile Consumer<Command> listener;
+
+    public CommandCoalescer(long windowMillis) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "command-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void submit(Command command) {
+        Object receiver = command.receiver();
+        boolean opensWindow;
+        synchronized (this) {
+            ArrayDeque<Command> queue = pending.get(receiver);
+            opensWindow = queue == null;
+            if (opensWindow) {
+                queue = new ArrayDeque<>();
+                pending.put(receiver, queue);
+            }
+            Command last = queue.peekLast();
+            if (last != null && command.isInverseOf(last)) {
+                queue.pollLast();
+            } else if (last == null || last.getClass() != command.getClass()) {
+                queue.addLast(command);
+            }
+        }
+        submitted.increment();
+        if (opensWindow) {
+            scheduler.schedule(() -> emit(receiver), windowNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void emit(Object receiver) {
+        ArrayDeque<Command> queue;
+        synchronized (this) {
+            queue = pending.remove(receiver);
+        }
+        if (queue == null) return;
+        Consumer<Command> listener = this.listener;
+        for (Command command : queue) {
+            command.execute();
+            if (listener != null) listener.accept(command);
+        }
+        emitted.add(queue.size());
+    }
+
+    // Dostaje każdą komendę, która po zamknięciu okna trafiła do odbiorcy (wątek okien)
+    public void setListener(Consumer<Command> listener) {
+        this.listener = listener;
+    }
+
+    // liczba komend przyjętych i faktycznie wykonanych na odbiorcach
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    public long getEmittedCount() {
+        return emitted.sum();
+    }
+
+    // Zamyka wszystkie otwarte okna od razu
+    public void flush() {
+        List<Object> receivers;
+        synchronized (this) {
+            receivers = new ArrayList<>(pending.keySet());
+        }
+        try {
+            scheduler.submit(() -> receivers.forEach(this::emit)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("wykonanie komendy nie powiodło się", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        scheduler.shutdown();
     }
 }
 
@@ -168,9 +1153,168 @@ public class NoCommand implements Command {
     }
 }
 
+// Asynchroniczna szyna komend
+// - producenci (dowolna liczba wątków) wkładają komendy do ograniczonego bufora cyklicznego:
+//   najpierw rezerwują numer (CAS na tail), potem czekają na wolny slot i go publikują
+// - zamknięcie ustawia najwyższy bit tail - nowych rezerwacji już nie ma, a dyspozytor
+//   kończy dopiero po wykonaniu wszystkich zarezerwowanych komend
+// - jeden wątek dyspozytora zbiera je partiami i rozdziela na "pasy" według odbiorcy
+// - każdy pas to jednowątkowy executor, więc komendy jednego odbiorcy idą po kolei,
+//   a różni odbiorcy działają równolegle
+// Na Javie 21+ można przekazać Thread.ofVirtual().factory(), żeby pasy działały na wątkach wirtualnych.
+public class CommandBus implements AutoCloseable {
+    private final Command[] commands;
+    private final CompletableFuture<Void>[] futures;
+    private final AtomicLongArray sequences; // numer sekwencji slotu (schemat Vyukova)
+    private final AtomicLong tail = new AtomicLong(); // najwyższy bit: szyna zamknięta
+    private final int mask;
+    private long head;                       // czyta tylko dyspozytor
+
+    private final ExecutorService[] lanes;
+    private final int batchSize;
+    private final Thread dispatcher;
+
+    @SuppressWarnings("unchecked")
+    public CommandBus(int capacity, int laneCount, int batchSize, ThreadFactory laneFactory) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("pojemność musi być potęgą dwójki: " + capacity);
+        }
+        this.commands = new Command[capacity];
+        this.futures = new CompletableFuture[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(laneFactory);
+        }
+        this.dispatcher = new Thread(this::dispatchLoop, "command-bus-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    public CommandBus(int capacity, int laneCount) {
+        this(capacity, laneCount, 256, Executors.defaultThreadFactory());
+    }
+
+    // Zleca komendę; gdy bufor jest pełny, producent czeka (backpressure)
+    public CompletableFuture<Void> submit(Command command) {
+        return publish(reserve(), command);
+    }
+
+    // Rezerwuje kolejny numer na szynie, nigdy nie czeka. Kolejność numerów to kolejność
+    // wykonania na pasie, a każdy numer trzeba potem opublikować przez publish().
+    long reserve() {
+        while (true) {
+            long t = tail.get();
+            if (t < 0) {
+                throw new IllegalStateException("szyna komend jest zamknięta");
+            }
+            if (tail.compareAndSet(t, t + 1)) return t;
+        }
+    }
+
+    // Czeka, aż slot numeru się zwolni, i publikuje w nim komendę dla dyspozytora
+    CompletableFuture<Void> publish(long ticket, Command command) {
+        int index = (int) ticket & mask;
+        while (sequences.get(index) != ticket) {
+            LockSupport.parkNanos(1_000); // slot z poprzedniego okrążenia - bufor pełny
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        commands[index] = command;
+        futures[index] = future;
+        sequences.set(index, ticket + 1);
+        LockSupport.unpark(dispatcher);
+        return future;
+    }
+
+    private void dispatchLoop() {
+        List<List<Command>> laneCommands = new ArrayList<>();
+        List<List<CompletableFuture<Void>>> laneFutures = new ArrayList<>();
+        for (int i = 0; i < lanes.length; i++) {
+            laneCommands.add(new ArrayList<>());
+            laneFutures.add(new ArrayList<>());
+        }
+
+        while (true) {
+            int drained = 0;
+            while (drained < batchSize) {
+                int index = (int) head & mask;
+                if (sequences.get(index) != head + 1) break;
+                Command command = commands[index];
+                int lane = laneOf(command);
+                laneCommands.get(lane).add(command);
+                laneFutures.get(lane).add(futures[index]);
+                commands[index] = null;
+                futures[index] = null;
+                sequences.set(index, head + commands.length); // slot wolny dla kolejnego okrążenia
+                head++;
+                drained++;
+            }
+            if (drained == 0) {
+                // po zamknięciu kończymy dopiero, gdy każdy zarezerwowany slot został opublikowany i zebrany
+                long t = tail.get();
+                if (t < 0 && head == (t & Long.MAX_VALUE)) return;
+                LockSupport.parkNanos(100_000);
+                continue;
+            }
+
+            // jedna paczka na pas zamiast osobnego zadania dla każdej komendy
+            for (int lane = 0; lane < lanes.length; lane++) {
+                if (laneCommands.get(lane).isEmpty()) continue;
+                Command[] batch = laneCommands.get(lane).toArray(new Command[0]);
+                @SuppressWarnings("unchecked")
+                CompletableFuture<Void>[] done = laneFutures.get(lane).toArray(new CompletableFuture[0]);
+                laneCommands.get(lane).clear();
+                laneFutures.get(lane).clear();
+                lanes[lane].execute(() -> runBatch(batch, done));
+            }
+        }
+    }
+
+    private static void runBatch(Command[] batch, CompletableFuture<Void>[] done) {
+        for (int i = 0; i < batch.length; i++) {
+            try {
+                batch[i].execute();
+                done[i].complete(null);
+            } catch (Throwable e) {
+                // także Error - inaczej reszta paczki nigdy by się nie zakończyła
+                done[i].completeExceptionally(e);
+            }
+        }
+    }
+
+    private int laneOf(Command command) {
+        int h = System.identityHashCode(command.receiver());
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % lanes.length;
+    }
+
+    // Wykonuje wszystko, co już zlecono, i zatrzymuje pasy
+    @Override
+    public void close() {
+        tail.getAndUpdate(t -> t | Long.MIN_VALUE);
+        LockSupport.unpark(dispatcher);
+        try {
+            dispatcher.join();
+            for (ExecutorService lane : lanes) {
+                lane.shutdown();
+            }
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
+
 // Przykład użycia
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         RemoteControl remote = new RemoteControl();
 
         Light livingRoomLight = new Light("Salon");
@@ -201,5 +1345,83 @@ public class Main {
         remote.onButtonWasPushed(0);
         remote.offButtonWasPushed(0);
         remote.undoButtonWasPushed();
+
+        System.out.println("\n=== Test slotów po nazwie ===");
+        Light bedroomLight = new Light("Sypialnia");
+        int bedroomSlot = remote.setCommand("Sypialnia", new LightOnCommand(bedroomLight), new LightOffCommand(bedroomLight));
+        remote.onButtonWasPushed("Sypialnia");
+        remote.offButtonWasPushed(bedroomSlot);
+        remote.removeCommand(bedroomSlot);
+
+        System.out.println("\n=== Test historii ===");
+        remote.onButtonWasPushed(1);
+        remote.offButtonWasPushed(1);
+        remote.onButtonWasPushed(1);
+        remote.undo(3);
+        remote.redo(2);
+
+        System.out.println("\n=== Test makra ===");
+        MacroCommand session = remote.recordedMacro();
+        System.out.println("komend w makrze: " + session.size());
+        session.execute();
+
+        System.out.println("\n=== Test dziennika ===");
+        CommandCodec codec = new CommandCodec();
+        codec.register(0, livingRoomLight);
+        codec.register(1, kitchenLight);
+        codec.register(2, garageDoor);
+        Path journalDirectory = Files.createTempDirectory("remote-journal");
+        try (CommandJournal journal = new CommandJournal(journalDirectory, codec, 5, 1000)) {
+            journal.recover();
+            remote.setJournal(journal);
+            remote.onButtonWasPushed(0);
+            remote.onButtonWasPushed(2);
+            remote.undoButtonWasPushed();
+        }
+        remote.setJournal(null);
+        System.out.println("-- odtwarzanie po restarcie --");
+        try (CommandJournal journal = new CommandJournal(journalDirectory, codec, 5, 1000)) {
+            System.out.println("odtworzono komend: " + journal.recover());
+        }
+
+        System.out.println("\n=== Test okna łączenia ===");
+        try (CommandCoalescer coalescer = new CommandCoalescer(50)) {
+            remote.setCoalescer(coalescer);
+            remote.onButtonWasPushed(0);
+            remote.offButtonWasPushed(0); // znosi się z poprzednią
+            remote.onButtonWasPushed(1);
+            remote.onButtonWasPushed(1);  // powtórzenie
+            remote.onButtonWasPushed(2);
+            coalescer.flush();
+            System.out.println("przyjęto " + coalescer.getSubmittedCount() + ", wykonano " + coalescer.getEmittedCount());
+
+            // cofnięcie w trakcie okna najpierw je zamyka - światło kończy wyłączone
+            remote.onButtonWasPushed(0);
+            remote.undoButtonWasPushed();
+        }
+        remote.setCoalescer(null);
+
+        System.out.println("\n=== Test szyny komend ===");
+        try (CommandBus bus = new CommandBus(1024, 4)) {
+            RemoteControl asyncRemote = new RemoteControl(bus);
+            asyncRemote.setCommand(0, livingRoomLightOn, livingRoomLightOff);
+            asyncRemote.setCommand(2, garageDoorUp, garageDoorDown);
+
+            // brama i światło w salonie działają równolegle, ale każde z nich po kolei
+            CompletableFuture.allOf(
+                    asyncRemote.onButtonWasPushedAsync(2),
+                    asyncRemote.onButtonWasPushedAsync(0),
+                    asyncRemote.offButtonWasPushedAsync(0),
+                    asyncRemote.offButtonWasPushedAsync(2)
+            ).join();
+
+            // cofnięcie idzie pasem bramy za jej komendami, nie wyprzedza ich
+            asyncRemote.onButtonWasPushedAsync(2);
+            asyncRemote.undoAsync(1).join();
+
+            // komendę wykonaną synchronicznie cofamy od razu, bez szyny
+            asyncRemote.onButtonWasPushed(0);
+            asyncRemote.undoButtonWasPushed();
+        }
     }
 } 
\ No newline at end of file
@@ -1,3 +1,22 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
 // Interfejs Subject
 public interface Subject {
     void registerObserver(Observer observer);
@@ -12,31 +31,52 @@ public interface Observer {
 
 // Klasa reprezentująca kanał YouTube
 public class YouTubeChannel implements Subject {
-    private List<Observer> observers;
+    private final ObserverRegistry observers = new ObserverRegistry();
+    private final Set<AsyncDispatcher> dispatchers = ConcurrentHashMap.newKeySet(); // do uploadVideoAsync
     private String channelName;
     private String latestVideo;
 
     public YouTubeChannel(String channelName) {
         this.channelName = channelName;
-        this.observers = new ArrayList<>();
+        // usunięty subskrybent (także przez Subscription.cancel) nie zostawia skrzynek w dispatcherach
+        observers.setRemovalListener(observer -> dispatchers.forEach(dispatcher -> dispatcher.forget(observer)));
     }
 
     @Override
     public void registerObserver(Observer observer) {
-        observers.add(observer);
-        System.out.println("Nowy subskrybent: " + ((Subscriber)observer).getName());
+        observers.subscribe(observer);
     }
 
     @Override
     public void removeObserver(Observer observer) {
-        observers.remove(observer);
-        System.out.println("Subskrybent usunięty: " + ((Subscriber)observer).getName());
+        observers.unsubscribe(observer);
+    }
+
+    // Dispatchery, przez które kanał publikuje asynchronicznie - zapominają usuniętych subskrybentów
+    public void registerDispatcher(AsyncDispatcher dispatcher) {
+        dispatchers.add(dispatcher);
+    }
+
+    // wyrejestrowany dispatcher zapomina też skrzynki obecnych subskrybentów kanału
+    public void removeDispatcher(AsyncDispatcher dispatcher) {
+        if (!dispatchers.remove(dispatcher)) return;
+        ObserverRegistry.Snapshot snapshot = observers.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            dispatcher.forget(snapshot.get(i));
+        }
+    }
+
+    // Rejestracja z uchwytem - cancel() usuwa subskrybenta bez szukania go
+    public ObserverRegistry.Subscription subscribe(Observer observer) {
+        return observers.subscribe(observer);
     }
 
+    // Rozsyła do migawki z chwili wywołania - rejestracja i usuwanie w trakcie pętli są bezpieczne
     @Override
     public void notifyObservers() {
-        for (Observer observer : observers) {
-            observer.update(latestVideo);
+        ObserverRegistry.Snapshot snapshot = observers.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            snapshot.get(i).update(latestVideo);
         }
     }
 
@@ -45,6 +85,185 @@ public class YouTubeChannel implements Subject {
         System.out.println("Kanał " + channelName + " opublikował nowy film: " + videoTitle);
         notifyObservers();
     }
+
+    // Publikacja bez czekania na subskrybentów - powiadomienia rozsyła dispatcher,
+    // a future kończy się, gdy każdy subskrybent dostał (albo stracił) powiadomienie.
+    // Dispatcher musi być zarejestrowany - inaczej zostawałyby w nim skrzynki usuniętych subskrybentów.
+    public CompletableFuture<Void> uploadVideoAsync(String videoTitle, AsyncDispatcher dispatcher) {
+        if (!dispatchers.contains(dispatcher)) {
+            throw new IllegalArgumentException("dispatcher nie jest zarejestrowany w kanale " + channelName);
+        }
+        this.latestVideo = videoTitle;
+        return dispatcher.dispatch(observers.snapshot(), videoTitle);
+    }
+}
+
+// Rejestr obserwatorów dla milionów subskrybentów
+// - obserwatorzy leżą w kawałkach po 1024, a migawka to (katalog kawałków, rozmiar)
+// - dopisanie trafia na pozycję size, której żadna opublikowana migawka nie czyta, więc
+//   odbywa się w miejscu, bez kopiowania
+// - usunięcie kopiuje jeden-dwa kawałki i katalog (n/1024 wskaźników), a nie całą listę
+// - czytelnicy biorą bieżącą migawkę jednym odczytem volatile i iterują bez blokad;
+//   zmiany w trakcie iteracji nie są widoczne ani nie rzucają ConcurrentModificationException
+// - subscribe zwraca uchwyt, który zna pozycję obserwatora - usunięcie przenosi ostatniego
+//   obserwatora na zwolnione miejsce, więc nie ma przeszukiwania (kolejność może się zmienić)
+// - zapisy są synchronizowane między sobą
+public class ObserverRegistry {
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Uchwyt rejestracji
+    public static final class Subscription {
+        private final ObserverRegistry registry;
+        private final Observer observer;
+        private int index = -1; // pozycja w rejestrze, -1 po usunięciu (chronione przez registry)
+
+        Subscription(ObserverRegistry registry, Observer observer) {
+            this.registry = registry;
+            this.observer = observer;
+        }
+
+        public void cancel() {
+            registry.remove(this);
+        }
+
+        public boolean isActive() {
+            synchronized (registry) {
+                return index >= 0;
+            }
+        }
+    }
+
+    // Niezmienna wersja rejestru
+    public static final class Snapshot {
+        private final ObserverRegistry registry;
+        private final Observer[][] chunks;
+        private final int size;
+
+        Snapshot(ObserverRegistry registry, Observer[][] chunks, int size) {
+            this.registry = registry;
+            this.chunks = chunks;
+            this.size = size;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public Observer get(int i) {
+            return chunks[i >>> CHUNK_BITS][i & CHUNK_MASK];
+        }
+
+        // czy obserwator z tej migawki nadal jest w rejestrze (bierze blokadę rejestru)
+        public boolean isSubscribed(Observer observer) {
+            return registry.isSubscribed(observer);
+        }
+
+        // kawałki to naturalne paczki do rozsyłania równoległego
+        int chunkCount() {
+            return (size + CHUNK_MASK) >>> CHUNK_BITS;
+        }
+
+        Observer[] chunk(int c) {
+            return chunks[c];
+        }
+
+        int chunkLength(int c) {
+            return Math.min(CHUNK_SIZE, size - (c << CHUNK_BITS));
+        }
+    }
+
+    private volatile Snapshot current = new Snapshot(this, new Observer[0][], 0);
+    private Subscription[] handles = new Subscription[CHUNK_SIZE]; // pozycja -> uchwyt
+    private final Map<Observer, Subscription> byObserver = new IdentityHashMap<>();
+    private volatile Consumer<Observer> removalListener;
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public int size() {
+        return current.size;
+    }
+
+    // Dostaje każdego usuniętego obserwatora (pod blokadą rejestru)
+    public void setRemovalListener(Consumer<Observer> removalListener) {
+        this.removalListener = removalListener;
+    }
+
+    // Ponowna rejestracja tego samego obserwatora zwraca istniejący uchwyt
+    public synchronized Subscription subscribe(Observer observer) {
+        Subscription existing = byObserver.get(observer);
+        if (existing != null) return existing;
+
+        Snapshot snapshot = current;
+        int index = snapshot.size;
+        int chunk = index >>> CHUNK_BITS;
+        Observer[][] chunks = snapshot.chunks;
+        if (chunk == chunks.length) {
+            chunks = Arrays.copyOf(chunks, Math.max(1, chunks.length * 2));
+        }
+        if (chunks[chunk] == null) {
+            chunks[chunk] = new Observer[CHUNK_SIZE];
+        }
+        // zapis w miejscu: każda opublikowana migawka ma rozmiar <= index
+        chunks[chunk][index & CHUNK_MASK] = observer;
+        current = new Snapshot(this, chunks, index + 1);
+
+        Subscription subscription = new Subscription(this, observer);
+        subscription.index = index;
+        if (index == handles.length) {
+            handles = Arrays.copyOf(handles, handles.length * 2);
+        }
+        handles[index] = subscription;
+        byObserver.put(observer, subscription);
+        return subscription;
+    }
+
+    public synchronized boolean isSubscribed(Observer observer) {
+        return byObserver.containsKey(observer);
+    }
+
+    public synchronized void unsubscribe(Observer observer) {
+        Subscription subscription = byObserver.get(observer);
+        if (subscription != null) remove(subscription);
+    }
+
+    synchronized void remove(Subscription subscription) {
+        int index = subscription.index;
+        if (index < 0) return;
+
+        Snapshot snapshot = current;
+        int last = snapshot.size - 1;
+        Observer[][] next = snapshot.chunks.clone();
+        Observer moved = snapshot.get(last);
+        writable(next, snapshot.chunks, index >>> CHUNK_BITS)[index & CHUNK_MASK] = moved;
+        // ostatni kawałek zawsze dostaje nową kopię - kolejne dopisania w miejscu nie mogą
+        // trafić do tablicy, którą czytają starsze, większe migawki
+        writable(next, snapshot.chunks, last >>> CHUNK_BITS)[last & CHUNK_MASK] = null;
+        if ((last & CHUNK_MASK) == 0) {
+            next[last >>> CHUNK_BITS] = null; // ostatni kawałek opustoszał
+        }
+        current = new Snapshot(this, next, last);
+
+        handles[index] = handles[last];
+        handles[index].index = index;
+        handles[last] = null;
+        subscription.index = -1;
+        byObserver.remove(subscription.observer);
+
+        Consumer<Observer> listener = removalListener;
+        if (listener != null) listener.accept(subscription.observer);
+    }
+
+    // kawałek c w nowej wersji - kopiowany przy pierwszym zapisie
+    private static Observer[] writable(Observer[][] next, Observer[][] previous, int c) {
+        if (next[c] == previous[c]) {
+            next[c] = previous[c].clone();
+        }
+        return next[c];
+    }
 }
 
 // Klasa reprezentująca subskrybenta
@@ -72,6 +291,243 @@ public class Subscriber implements Observer {
     }
 }
 
+// Asynchroniczne rozsyłanie powiadomień
+// - lista obserwatorów jest dzielona na paczki po batchSize; każda paczka to jedno zadanie
+//   na executorze (pula wątków albo, na Javie 21+, Executors.newVirtualThreadPerTaskExecutor())
+// - każdy obserwator ma własną, ograniczoną skrzynkę; paczka wkłada publikację do skrzynek,
+//   a potem sama opróżnia te, których nikt jeszcze nie opróżnia - bez osobnego zadania na
+//   obserwatora, więc publikacja kosztuje tyle zadań, ile paczek
+// - skrzynkę opróżnia co najwyżej jeden wątek naraz, a kolejna publikacja zaczyna rozkładanie
+//   do skrzynek dopiero, gdy poprzednia skończy - obserwator dostaje powiadomienia w kolejności
+//   publikacji; wolny subskrybent opóźnia tylko resztę skrzynek swojej paczki
+// - gdy skrzynka jest pełna, decyduje OverflowPolicy
+// - dispatch zwraca future, który kończy się po obsłużeniu publikacji przez wszystkich
+//   (wyjątkiem, jeśli executor odrzucił którąś paczkę)
+public class AsyncDispatcher {
+
+    public enum OverflowPolicy {
+        DROP_NEWEST, // nowe powiadomienie przepada
+        DROP_OLDEST, // przepada najstarsze oczekujące
+        COALESCE     // nowe zastępuje najnowsze oczekujące - subskrybent i tak zobaczy ostatni film
+    }
+
+    // wynik Mailbox.offer
+    private static final int QUEUED = 0;  // skrzynkę opróżnia już inny wątek
+    private static final int CLAIMED = 1; // wołający ma opróżnić skrzynkę
+    private static final int REMOVED = 2; // skrzynki nie ma już w mapie - trzeba wziąć nową
+
+    private final Executor executor;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final OverflowPolicy policy;
+    private final ConcurrentHashMap<Observer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private CompletableFuture<Void> lastOffered = CompletableFuture.completedFuture(null); // chronione przez this
+
+    public AsyncDispatcher(Executor executor, int batchSize, int queueCapacity, OverflowPolicy policy) {
+        if (batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("rozmiar paczki i pojemność skrzynki muszą być dodatnie");
+        }
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.policy = policy;
+    }
+
+    // Rozsyła do migawki rejestru - paczki czytają migawkę, bez kopiowania listy.
+    // Obserwator usunięty z rejestru po zrobieniu migawki dostaje jeszcze to powiadomienie,
+    // ale nowa skrzynka założona dla niego znika po opróżnieniu.
+    public CompletableFuture<Void> dispatch(ObserverRegistry.Snapshot snapshot, String message) {
+        return dispatch(snapshot.size(), snapshot::get, snapshot::isSubscribed, message);
+    }
+
+    // skrzynki obserwatorów z tablicy trzeba zapominać samemu (forget)
+    public CompletableFuture<Void> dispatch(Observer[] observers, String message) {
+        return dispatch(observers.length, i -> observers[i], null, message);
+    }
+
+    private CompletableFuture<Void> dispatch(int size, IntFunction<Observer> observers, Predicate<Observer> subscribed, String message) {
+        Publication publication = new Publication(message, size);
+        int batches = (size + batchSize - 1) / batchSize;
+        AtomicInteger pendingBatches = new AtomicInteger(batches);
+        CompletableFuture<Void> offered = new CompletableFuture<>();
+        Runnable batchOffered = () -> {
+            if (pendingBatches.decrementAndGet() == 0) offered.complete(null);
+        };
+
+        CompletableFuture<Void> previous;
+        synchronized (this) {
+            previous = lastOffered;
+            lastOffered = offered;
+        }
+        previous.whenComplete((ignored, error) -> {
+            if (batches == 0) offered.complete(null);
+            int submitted = 0;
+            try {
+                for (int from = 0; from < size; from += batchSize) {
+                    int start = from;
+                    int end = Math.min(size, from + batchSize);
+                    executor.execute(() -> deliver(publication, observers, subscribed, start, end, batchOffered));
+                    submitted++;
+                }
+            } catch (Throwable e) {
+                // whenComplete połknąłby wyjątek; niewysłane paczki nie dotknęły żadnej skrzynki,
+                // więc odliczamy je od razu - inaczej kolejne publikacje czekałyby na nie w nieskończoność
+                publication.future.completeExceptionally(e);
+                for (int i = submitted; i < batches; i++) {
+                    batchOffered.run();
+                }
+            }
+        });
+        return publication.future;
+    }
+
+    // Zadanie jednej paczki: najpierw publikacja trafia do wszystkich skrzynek paczki,
+    // potem paczka opróżnia skrzynki, które przypadły jej
+    private void deliver(Publication publication, IntFunction<Observer> observers, Predicate<Observer> subscribed,
+                         int from, int to, Runnable batchOffered) {
+        List<Mailbox> claimed = new ArrayList<>();
+        try {
+            for (int i = from; i < to; i++) {
+                Observer observer = observers.apply(i);
+                while (true) {
+                    Mailbox mailbox = mailboxes.get(observer);
+                    boolean created = false;
+                    if (mailbox == null) {
+                        Mailbox fresh = new Mailbox(observer);
+                        mailbox = mailboxes.putIfAbsent(observer, fresh);
+                        if (mailbox == null) {
+                            mailbox = fresh;
+                            created = true;
+                        }
+                    }
+                    int result = mailbox.offer(publication);
+                    if (result == CLAIMED) claimed.add(mailbox);
+                    if (result == REMOVED) continue;
+                    // forget() mógł przyjść przed założeniem skrzynki i jej nie zobaczyć -
+                    // sprawdzamy rejestr dopiero po wstawieniu, więc jedno z dwóch ją usunie
+                    if (created && subscribed != null && !subscribed.test(observer)) mailbox.retire();
+                    break;
+                }
+            }
+        } finally {
+            batchOffered.run();
+        }
+        for (Mailbox mailbox : claimed) {
+            mailbox.drain();
+        }
+    }
+
+    // Zapomina skrzynkę wyrejestrowanego obserwatora; opróżniana skrzynka znika po opróżnieniu,
+    // żeby następna publikacja nie założyła drugiej skrzynki z drugim wątkiem dostarczającym
+    public void forget(Observer observer) {
+        Mailbox mailbox = mailboxes.get(observer);
+        if (mailbox != null) mailbox.retire();
+    }
+
+    // powiadomienia odrzucone przez OverflowPolicy
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    // powiadomienia, przy których update rzucił wyjątek
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    // Jedna publikacja: wiadomość i licznik obserwatorów, którzy jeszcze jej nie obsłużyli
+    private static final class Publication {
+        final String message;
+        final AtomicInteger remaining;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Publication(String message, int observers) {
+            this.message = message;
+            this.remaining = new AtomicInteger(observers);
+            if (observers == 0) future.complete(null);
+        }
+
+        void done() {
+            if (remaining.decrementAndGet() == 0) future.complete(null);
+        }
+    }
+
+    private final class Mailbox {
+        private final Observer observer;
+        // pola chronione przez this
+        private final ArrayDeque<Publication> queue = new ArrayDeque<>();
+        private boolean draining;
+        private boolean retired; // obserwator zapomniany - skrzynka zniknie, gdy nikt jej nie opróżnia
+        private boolean removed;
+
+        Mailbox(Observer observer) {
+            this.observer = observer;
+        }
+
+        int offer(Publication publication) {
+            Publication discarded = null;
+            int result;
+            synchronized (this) {
+                if (removed) return REMOVED;
+                if (queue.size() < queueCapacity) {
+                    queue.addLast(publication);
+                } else if (policy == OverflowPolicy.DROP_NEWEST) {
+                    discarded = publication;
+                } else if (policy == OverflowPolicy.DROP_OLDEST) {
+                    discarded = queue.pollFirst();
+                    queue.addLast(publication);
+                } else {
+                    discarded = queue.pollLast();
+                    queue.addLast(publication);
+                }
+                result = draining ? QUEUED : CLAIMED;
+                draining = true;
+            }
+            if (discarded != null) {
+                dropped.increment();
+                discarded.done();
+            }
+            return result;
+        }
+
+        synchronized void retire() {
+            retired = true;
+            removeIfIdle();
+        }
+
+        // wołane pod this
+        private void removeIfIdle() {
+            if (retired && !draining) {
+                removed = true;
+                mailboxes.remove(observer, this);
+            }
+        }
+
+        // dostarcza wszystko, co czeka w skrzynce
+        void drain() {
+            while (true) {
+                Publication publication;
+                synchronized (this) {
+                    publication = queue.pollFirst();
+                    if (publication == null) {
+                        draining = false;
+                        removeIfIdle();
+                        return;
+                    }
+                }
+                try {
+                    observer.update(publication.message);
+                } catch (RuntimeException e) {
+                    failed.increment(); // błąd jednego subskrybenta nie zatrzymuje pozostałych
+                } finally {
+                    publication.done();
+                }
+            }
+        }
+    }
+}
+
 // Przykład użycia
 public class Main {
     public static void main(String[] args) {
@@ -87,6 +543,9 @@ public class Main {
         channel.registerObserver(subscriber1);
         channel.registerObserver(subscriber2);
         channel.registerObserver(subscriber3);
+        for (Subscriber subscriber : new Subscriber[]{subscriber1, subscriber2, subscriber3}) {
+            System.out.println("Nowy subskrybent: " + subscriber.getName());
+        }
 
         // Publikacja nowego filmu
         System.out.println("\n=== Publikacja nowego filmu ===");
@@ -95,6 +554,7 @@ public class Main {
         // Usunięcie subskrybenta
         System.out.println("\n=== Usunięcie subskrybenta ===");
         channel.removeObserver(subscriber2);
+        System.out.println("Subskrybent usunięty: " + subscriber2.getName());
 
         // Publikacja kolejnego filmu
         System.out.println("\n=== Publikacja kolejnego filmu ===");
@@ -107,5 +567,23 @@ public class Main {
 
         System.out.println("\nPowiadomienia dla " + subscriber3.getName() + ":");
         subscriber3.getNotifications().forEach(System.out::println);
+
+        // Rejestracja z uchwytem
+        System.out.println("\n=== Subskrypcja z uchwytem ===");
+        Subscriber subscriber4 = new Subscriber("Ola");
+        ObserverRegistry.Subscription subscription = channel.subscribe(subscriber4);
+        channel.uploadVideo("Kolekcje w Javie");
+        subscription.cancel();
+        channel.uploadVideo("Strumienie w Javie");
+
+        // Publikacja asynchroniczna
+        System.out.println("\n=== Publikacja asynchroniczna ===");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AsyncDispatcher dispatcher = new AsyncDispatcher(executor, 1024, 16, AsyncDispatcher.OverflowPolicy.COALESCE);
+        channel.registerDispatcher(dispatcher);
+        channel.uploadVideoAsync("Programowanie współbieżne", dispatcher).join();
+        channel.removeDispatcher(dispatcher);
+        System.out.println("wszyscy subskrybenci powiadomieni, odrzuconych: " + dispatcher.getDroppedCount());
+        executor.shutdown();
     }
 } 
\ No newline at end of file
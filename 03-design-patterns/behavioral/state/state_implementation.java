@@ -1,3 +1,18 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
 // Interfejs stanu
 public interface VendingMachineState {
     void insertCoin(VendingMachine machine);
@@ -10,12 +25,16 @@ public interface VendingMachineState {
 public class VendingMachine {
     private VendingMachineState state;
     private int coins;
-    private boolean hasProduct;
+    private int products;
 
     public VendingMachine() {
-        this.state = new NoCoinState();
+        this(1);
+    }
+
+    public VendingMachine(int products) {
+        this.state = products > 0 ? NoCoinState.INSTANCE : SoldOutState.INSTANCE;
         this.coins = 0;
-        this.hasProduct = true;
+        this.products = products;
     }
 
     public void setState(VendingMachineState state) {
@@ -51,25 +70,27 @@ public class VendingMachine {
     }
 
     public boolean hasProduct() {
-        return hasProduct;
+        return products > 0;
     }
 
     public void removeProduct() {
-        hasProduct = false;
+        if (products > 0) products--;
     }
 
     public void addProduct() {
-        hasProduct = true;
+        products++;
     }
 }
 
 // Konkretne stany
 public class NoCoinState implements VendingMachineState {
+    public static final NoCoinState INSTANCE = new NoCoinState(); // stany nie mają pól, więc wystarczy po jednym egzemplarzu
+
     @Override
     public void insertCoin(VendingMachine machine) {
         System.out.println("Moneta wrzucona");
         machine.addCoin();
-        machine.setState(new HasCoinState());
+        machine.setState(HasCoinState.INSTANCE);
     }
 
     @Override
@@ -89,6 +110,8 @@ public class NoCoinState implements VendingMachineState {
 }
 
 public class HasCoinState implements VendingMachineState {
+    public static final HasCoinState INSTANCE = new HasCoinState();
+
     @Override
     public void insertCoin(VendingMachine machine) {
         System.out.println("Moneta już wrzucona");
@@ -98,13 +121,13 @@ public class HasCoinState implements VendingMachineState {
     public void ejectCoin(VendingMachine machine) {
         System.out.println("Moneta zwrócona");
         machine.removeCoin();
-        machine.setState(new NoCoinState());
+        machine.setState(NoCoinState.INSTANCE);
     }
 
     @Override
     public void selectProduct(VendingMachine machine) {
         System.out.println("Produkt wybrany");
-        machine.setState(new SoldState());
+        machine.setState(SoldState.INSTANCE);
     }
 
     @Override
@@ -114,6 +137,8 @@ public class HasCoinState implements VendingMachineState {
 }
 
 public class SoldState implements VendingMachineState {
+    public static final SoldState INSTANCE = new SoldState();
+
     @Override
     public void insertCoin(VendingMachine machine) {
         System.out.println("Poczekaj na wydanie produktu");
@@ -134,14 +159,16 @@ public class SoldState implements VendingMachineState {
         System.out.println("Produkt wydany");
         machine.removeProduct();
         if (machine.hasProduct()) {
-            machine.setState(new NoCoinState());
+            machine.setState(NoCoinState.INSTANCE);
         } else {
-            machine.setState(new SoldOutState());
+            machine.setState(SoldOutState.INSTANCE);
         }
     }
 }
 
 public class SoldOutState implements VendingMachineState {
+    public static final SoldOutState INSTANCE = new SoldOutState();
+
     @Override
     public void insertCoin(VendingMachine machine) {
         System.out.println("Automat pusty");
@@ -163,9 +190,1084 @@ public class SoldOutState implements VendingMachineState {
     }
 }
 
+// Skompilowany automat stanów - ta sama logika co klasy stanów powyżej, ale bez obiektów
+// - stany i zdarzenia to liczby, przejścia i akcje leżą w tablicach int[stan][zdarzenie]
+//   wyliczonych raz, przy ładowaniu klasy
+// - jedno przejście to dwa odczyty z tablicy i switch po akcji - zero alokacji
+// - logowanie i inne obserwacje przez Listener, domyślnie pusty
+public final class VendingMachineEngine {
+    // stany
+    public static final int NO_COIN = 0;
+    public static final int HAS_COIN = 1;
+    public static final int SOLD = 2;
+    public static final int SOLD_OUT = 3;
+    public static final int STATE_COUNT = 4;
+
+    // zdarzenia
+    public static final int INSERT_COIN = 0;
+    public static final int EJECT_COIN = 1;
+    public static final int SELECT_PRODUCT = 2;
+    public static final int DISPENSE = 3;
+    public static final int EVENT_COUNT = 4;
+
+    // zdarzenie niedozwolone w danym stanie (np. dispense w NO_COIN)
+    public static final int REJECTED = -1;
+
+    // akcje wykonywane przy przejściu
+    public static final int NONE = 0;
+    public static final int ADD_COIN = 1;
+    public static final int REMOVE_COIN = 2;
+    public static final int REMOVE_PRODUCT = 3;
+
+    static final String[] STATE_NAMES = {"NO_COIN", "HAS_COIN", "SOLD", "SOLD_OUT"};
+    static final String[] EVENT_NAMES = {"INSERT_COIN", "EJECT_COIN", "SELECT_PRODUCT", "DISPENSE"};
+
+    private static final int[][] NEXT = new int[STATE_COUNT][EVENT_COUNT];
+    private static final int[][] ACTION = new int[STATE_COUNT][EVENT_COUNT];
+
+    static {
+        for (int[] row : NEXT) {
+            Arrays.fill(row, REJECTED);
+        }
+        transition(NO_COIN, INSERT_COIN, HAS_COIN, ADD_COIN);
+        transition(HAS_COIN, EJECT_COIN, NO_COIN, REMOVE_COIN);
+        transition(HAS_COIN, SELECT_PRODUCT, SOLD, NONE);
+        // SOLD_OUT zamiast NO_COIN, gdy po wydaniu skończy się towar - sprawdza to akcja
+        transition(SOLD, DISPENSE, NO_COIN, REMOVE_PRODUCT);
+    }
+
+    // Obserwator przejść - np. logowanie albo liczniki
+    public interface Listener {
+        Listener NONE = new Listener() {
+            @Override
+            public void onTransition(int from, int event, int to) {
+            }
+
+            @Override
+            public void onRejected(int state, int event) {
+            }
+        };
+
+        void onTransition(int from, int event, int to);
+
+        void onRejected(int state, int event);
+    }
+
+    private VendingMachineEngine() {
+    }
+
+    private static void transition(int from, int event, int to, int action) {
+        NEXT[from][event] = to;
+        ACTION[from][event] = action;
+    }
+
+    // stan po zdarzeniu (przed akcją) albo REJECTED
+    public static int next(int state, int event) {
+        return NEXT[state][event];
+    }
+
+    public static int action(int state, int event) {
+        return ACTION[state][event];
+    }
+
+    // Jedno przejście automatu i w tablicach struct-of-arrays: akcja zmienia coins[i] i stock[i],
+    // wynik to nowy stan albo REJECTED (wtedy nic się nie zmienia).
+    // Jedyne miejsce ze switchem po akcjach - korzystają z niego pojedynczy automat i flota.
+    public static int fire(int from, int event, int[] coins, int[] stock, int i) {
+        int to = NEXT[from][event];
+        if (to == REJECTED) return REJECTED;
+        switch (ACTION[from][event]) {
+            case ADD_COIN:
+                coins[i]++;
+                break;
+            case REMOVE_COIN:
+                coins[i]--;
+                break;
+            case REMOVE_PRODUCT:
+                if (--stock[i] == 0) to = SOLD_OUT;
+                break;
+            default:
+                break;
+        }
+        return to;
+    }
+
+    public static String stateName(int state) {
+        return STATE_NAMES[state];
+    }
+
+    public static String eventName(int event) {
+        return EVENT_NAMES[event];
+    }
+}
+
+// Automat korzystający z tablic VendingMachineEngine - cały stan to trzy liczby
+// (monety i towar jako jednoelementowe tablice, czyli flota z jednym automatem dla fire())
+public final class CompiledVendingMachine {
+    private final VendingMachineEngine.Listener listener;
+    private final int[] coins = new int[1];
+    private final int[] stock = new int[1];
+    private int state;
+
+    public CompiledVendingMachine(int stock, VendingMachineEngine.Listener listener) {
+        this.listener = listener;
+        this.stock[0] = stock;
+        this.state = stock > 0 ? VendingMachineEngine.NO_COIN : VendingMachineEngine.SOLD_OUT;
+    }
+
+    public CompiledVendingMachine(int stock) {
+        this(stock, VendingMachineEngine.Listener.NONE);
+    }
+
+    // obsługuje zdarzenie i zwraca nowy stan (bez zmian, jeśli zdarzenie odrzucono)
+    public int fire(int event) {
+        int from = state;
+        int to = VendingMachineEngine.fire(from, event, coins, stock, 0);
+        if (to == VendingMachineEngine.REJECTED) {
+            listener.onRejected(from, event);
+            return from;
+        }
+        state = to;
+        listener.onTransition(from, event, to);
+        return to;
+    }
+
+    // uzupełnia towar; pusty automat wraca do czekania na monetę
+    public void addStock(int amount) {
+        stock[0] += amount;
+        if (state == VendingMachineEngine.SOLD_OUT && stock[0] > 0) {
+            state = VendingMachineEngine.NO_COIN;
+        }
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public int getCoins() {
+        return coins[0];
+    }
+
+    public int getStock() {
+        return stock[0];
+    }
+}
+
+// Log przejść poza gorącą ścieżką: przejście zapisuje tylko trzy liczby do bufora,
+// a napisy powstają dopiero w print()
+public class TransitionLog implements VendingMachineEngine.Listener {
+    private final int[] entries; // [z | zdarzenie | do], do = REJECTED dla odrzuconych
+    private int size;
+
+    public TransitionLog(int capacity) {
+        entries = new int[capacity * 3];
+    }
+
+    @Override
+    public void onTransition(int from, int event, int to) {
+        record(from, event, to);
+    }
+
+    @Override
+    public void onRejected(int state, int event) {
+        record(state, event, VendingMachineEngine.REJECTED);
+    }
+
+    // po zapełnieniu bufora nowe wpisy są pomijane, a nie alokowane
+    private void record(int from, int event, int to) {
+        if (size * 3 == entries.length) return;
+        entries[size * 3] = from;
+        entries[size * 3 + 1] = event;
+        entries[size * 3 + 2] = to;
+        size++;
+    }
+
+    public void print() {
+        for (int i = 0; i < size; i++) {
+            int from = entries[i * 3];
+            int event = entries[i * 3 + 1];
+            int to = entries[i * 3 + 2];
+            System.out.println(VendingMachineEngine.stateName(from) + " --" + VendingMachineEngine.eventName(event) + "--> "
+                    + (to == VendingMachineEngine.REJECTED ? "odrzucone" : VendingMachineEngine.stateName(to)));
+        }
+        size = 0;
+    }
+}
+
+// Flota automatów przetwarzana równolegle
+// - automat o numerze id należy do shardu id % shardCount i tylko wątek tego shardu go zmienia
+//   (jeden pisarz - bez blokad i bez CAS na stanie automatu)
+// - zdarzenia trafiają do kolejki shardu: ograniczonego bufora cyklicznego long-ów
+//   [indeks automatu w shardzie | zdarzenie], z wieloma producentami i jednym konsumentem
+// - stan floty to tablice prymitywów w układzie struct-of-arrays (stan, monety, towar),
+//   przy 10^6 automatów to ok. 9 MB zamiast miliona obiektów
+// - przejścia z tablic VendingMachineEngine
+public class VendingFleet implements AutoCloseable {
+    private final Shard[] shards;
+    private final int machineCount;
+
+    public VendingFleet(int machineCount, int shardCount, int initialStock, int queueCapacity) {
+        this(machineCount, shardCount, initialStock, queueCapacity, null);
+    }
+
+    // recorder (może być null) dostaje każde przejście i każde odrzucone zdarzenie
+    public VendingFleet(int machineCount, int shardCount, int initialStock, int queueCapacity, TransitionRecorder recorder) {
+        if (Integer.bitCount(queueCapacity) != 1) {
+            throw new IllegalArgumentException("pojemność kolejki musi być potęgą dwójki: " + queueCapacity);
+        }
+        this.machineCount = machineCount;
+        this.shards = new Shard[shardCount];
+        for (int s = 0; s < shardCount; s++) {
+            int machines = (machineCount - s + shardCount - 1) / shardCount;
+            shards[s] = new Shard(s, shardCount, machines, initialStock, queueCapacity, recorder);
+            shards[s].worker = new Thread(shards[s]::run, "vending-shard-" + s);
+            shards[s].worker.start();
+        }
+    }
+
+    // Wysyła zdarzenie do automatu; gdy kolejka shardu jest pełna, producent czeka
+    public void submit(int machineId, int event) {
+        if (machineId < 0 || machineId >= machineCount) {
+            throw new IndexOutOfBoundsException("nieznany automat: " + machineId);
+        }
+        // zdarzenie spoza tablic wywróciłoby wątek shardu, a ujemne nadpisałoby bity automatu
+        if (event < 0 || event >= VendingMachineEngine.EVENT_COUNT) {
+            throw new IllegalArgumentException("nieznane zdarzenie: " + event);
+        }
+        Shard shard = shards[machineId % shards.length];
+        if (!shard.running) {
+            throw new IllegalStateException("flota jest zatrzymana");
+        }
+        long packed = ((long) (machineId / shards.length) << 32) | event;
+        while (!shard.offer(packed)) {
+            if (!shard.running) {
+                throw new IllegalStateException("flota jest zatrzymana");
+            }
+            LockSupport.parkNanos(1_000);
+        }
+    }
+
+    // Odczyty stanu są wiarygodne po close() - wcześniej wątki shardów mogą go jeszcze zmieniać
+    public int getState(int machineId) {
+        return shards[machineId % shards.length].state[machineId / shards.length];
+    }
+
+    public int getCoins(int machineId) {
+        return shards[machineId % shards.length].coins[machineId / shards.length];
+    }
+
+    public int getStock(int machineId) {
+        return shards[machineId % shards.length].stock[machineId / shards.length];
+    }
+
+    public long getProcessedCount() {
+        long sum = 0;
+        for (Shard shard : shards) {
+            sum += shard.processed;
+        }
+        return sum;
+    }
+
+    public long getRejectedCount() {
+        long sum = 0;
+        for (Shard shard : shards) {
+            sum += shard.rejected;
+        }
+        return sum;
+    }
+
+    // zdarzenia, których obsługa rzuciła wyjątek (np. z rejestratora) - shard działa dalej
+    public long getFailedCount() {
+        long sum = 0;
+        for (Shard shard : shards) {
+            sum += shard.failed;
+        }
+        return sum;
+    }
+
+    // Przetwarza wszystkie wysłane zdarzenia i zatrzymuje wątki shardów
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.worker);
+        }
+        try {
+            for (Shard shard : shards) {
+                shard.worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Shard {
+        private static final long IDLE_PARK_NANOS = 100_000;
+
+        final byte[] state;
+        final int[] coins;
+        final int[] stock;
+
+        final long[] events;
+        final AtomicLongArray sequences; // schemat Vyukova: numer okrążenia w slocie
+        final AtomicLong tail = new AtomicLong();
+        final int mask;
+        long head;
+
+        final int shardIndex;
+        final int shardCount;
+        final TransitionRecorder recorder;
+
+        volatile boolean running = true;
+        Thread worker;
+        long processed; // liczniki pisze tylko wątek shardu
+        long rejected;
+        long failed;
+
+        Shard(int shardIndex, int shardCount, int machines, int initialStock, int queueCapacity, TransitionRecorder recorder) {
+            this.shardIndex = shardIndex;
+            this.shardCount = shardCount;
+            this.recorder = recorder;
+            state = new byte[machines];
+            coins = new int[machines];
+            stock = new int[machines];
+            Arrays.fill(stock, initialStock);
+            Arrays.fill(state, (byte) (initialStock > 0 ? VendingMachineEngine.NO_COIN : VendingMachineEngine.SOLD_OUT));
+
+            events = new long[queueCapacity];
+            sequences = new AtomicLongArray(queueCapacity);
+            for (int i = 0; i < queueCapacity; i++) {
+                sequences.set(i, i);
+            }
+            mask = queueCapacity - 1;
+        }
+
+        boolean offer(long event) {
+            while (true) {
+                long t = tail.get();
+                int index = (int) t & mask;
+                long sequence = sequences.get(index);
+                if (sequence == t) {
+                    if (tail.compareAndSet(t, t + 1)) {
+                        events[index] = event;
+                        sequences.set(index, t + 1);
+                        return true;
+                    }
+                } else if (sequence < t) {
+                    return false;
+                }
+            }
+        }
+
+        void run() {
+            try {
+                while (true) {
+                    boolean stopping = !running;
+                    int drained = 0;
+                    while (true) {
+                        int index = (int) head & mask;
+                        if (sequences.get(index) != head + 1) break;
+                        long event = events[index];
+                        sequences.set(index, head + events.length);
+                        head++;
+                        try {
+                            apply((int) (event >>> 32), (int) event);
+                        } catch (RuntimeException e) {
+                            failed++; // jedno złe zdarzenie nie zatrzymuje shardu
+                        }
+                        drained++;
+                    }
+                    // po sygnale stopu robimy jeszcze jedno pełne opróżnienie kolejki
+                    if (stopping && drained == 0 && tail.get() == head) return;
+                    if (drained == 0) LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            } finally {
+                // martwy shard nie może zostawić producentów czekających na miejsce w kolejce
+                running = false;
+            }
+        }
+
+        private void apply(int machine, int event) {
+            int from = state[machine];
+            int to = VendingMachineEngine.fire(from, event, coins, stock, machine);
+            processed++;
+            if (to == VendingMachineEngine.REJECTED) {
+                rejected++;
+            } else {
+                state[machine] = (byte) to;
+            }
+            if (recorder != null) recorder.record(machine * shardCount + shardIndex, from, event, to);
+        }
+    }
+}
+
+// Przepustowość floty: java VendingFleetBenchmark [automaty] [shardy] [producenci] [zdarzenia]
+public class VendingFleetBenchmark {
+    public static void main(String[] args) throws InterruptedException {
+        int machines = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int shardCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int producers = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int eventsPerProducer = (args.length > 3 ? Integer.parseInt(args[3]) : 20_000_000) / producers;
+
+        long start = System.nanoTime();
+        VendingFleet fleet = new VendingFleet(machines, shardCount, 10, 1 << 16);
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            long seed = p;
+            threads[p] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    fleet.submit(random.nextInt(machines), random.nextInt(VendingMachineEngine.EVENT_COUNT));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        fleet.close();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("zdarzeń: %d (odrzuconych %d), %d shardów, %.1f mln zdarzeń/s%n",
+                fleet.getProcessedCount(), fleet.getRejectedCount(), shardCount,
+                fleet.getProcessedCount() / (elapsed / 1e9) / 1e6);
+    }
+}
+
+// Nominały monet w groszach i wydawanie reszty z ograniczonej liczby monet
+public final class Coins {
+    public static final int[] VALUES = {500, 200, 100, 50, 20, 10};
+    public static final int COUNT = VALUES.length;
+
+    private Coins() {
+    }
+
+    // indeks nominału albo -1 dla nieznanej monety
+    public static int indexOf(int value) {
+        for (int i = 0; i < COUNT; i++) {
+            if (VALUES[i] == value) return i;
+        }
+        return -1;
+    }
+
+    // Rozkłada amount na monety z box[offset..offset+COUNT) i zapisuje liczby monet do out.
+    // Najpierw zachłannie od największych monet - zwykle wystarcza i nic nie alokuje. Przy
+    // ograniczonych monetach potrafi jednak zawieść (60 = 50 + ? przy braku dziesiątek, a 3 x 20
+    // jest), wtedy rozstrzyga programowanie dynamiczne po kwotach - czas liniowy w amount / 10.
+    public static boolean makeChange(int amount, int[] box, int offset, int[] out) {
+        Arrays.fill(out, 0);
+        int unit = VALUES[COUNT - 1];
+        if (amount < 0 || amount % unit != 0) return false;
+        long available = 0;
+        for (int coin = 0; coin < COUNT; coin++) {
+            available += (long) box[offset + coin] * VALUES[coin];
+        }
+        if (available < amount) return false;
+        if (greedy(amount, box, offset, out)) return true;
+        Arrays.fill(out, 0);
+        return bounded(amount / unit, box, offset, out);
+    }
+
+    private static boolean greedy(int amount, int[] box, int offset, int[] out) {
+        for (int coin = 0; coin < COUNT; coin++) {
+            out[coin] = Math.min(amount / VALUES[coin], box[offset + coin]);
+            amount -= out[coin] * VALUES[coin];
+        }
+        return amount == 0;
+    }
+
+    // Kwoty liczone w jednostkach najmniejszej monety, nominały po kolei: reached[a] to nominał,
+    // którym pierwszy raz osiągnięto kwotę a (-1 - jeszcze nie), a uses[a] to liczba monet tego
+    // nominału na końcu tej drogi - pilnuje, żeby nie wziąć więcej monet, niż jest w kasecie.
+    private static boolean bounded(int units, int[] box, int offset, int[] out) {
+        int unit = VALUES[COUNT - 1];
+        int[] reached = new int[units + 1];
+        int[] uses = new int[units + 1];
+        Arrays.fill(reached, -1);
+        reached[0] = COUNT; // kwota 0 bez żadnej monety
+        for (int coin = 0; coin < COUNT && reached[units] < 0; coin++) {
+            int step = VALUES[coin] / unit;
+            int limit = box[offset + coin];
+            for (int a = step; a <= units; a++) {
+                int previous = a - step;
+                if (reached[a] >= 0 || reached[previous] < 0) continue;
+                int used = reached[previous] == coin ? uses[previous] : 0;
+                if (used == limit) continue;
+                reached[a] = coin;
+                uses[a] = used + 1;
+            }
+        }
+        if (reached[units] < 0) return false;
+        for (int a = units; a > 0; a -= VALUES[reached[a]] / unit) {
+            out[reached[a]]++;
+        }
+        return true;
+    }
+}
+
+// Magazyn wielu automatów naraz - tablice prymitywów indeksowane [automat * skuCount + sku]
+// - stan towaru i ceny (w groszach) osobno dla każdego automatu
+// - monety w kasetach [automat * Coins.COUNT + nominał], z nich wydawana jest reszta
+// - uzupełnianie i inwentaryzacja całych partii automatów w jednym przebiegu po tablicach,
+//   zamiast osobnego zdarzenia addProduct() dla każdej sztuki
+public final class FleetInventory {
+    private final int machineCount;
+    private final int skuCount;
+    private final int[] stock;
+    private final int[] prices;
+    private final int[] coinBox;
+
+    // Podsumowanie inwentaryzacji
+    public static final class Audit {
+        private final long[] unitsPerSku;
+        private final long stockValue;
+        private final long cash;
+        private final int machinesWithEmptySku;
+
+        Audit(long[] unitsPerSku, long stockValue, long cash, int machinesWithEmptySku) {
+            this.unitsPerSku = unitsPerSku;
+            this.stockValue = stockValue;
+            this.cash = cash;
+            this.machinesWithEmptySku = machinesWithEmptySku;
+        }
+
+        public long[] getUnitsPerSku() {
+            return unitsPerSku;
+        }
+
+        // wartość towaru w groszach, liczona po cenach poszczególnych automatów
+        public long getStockValue() {
+            return stockValue;
+        }
+
+        // gotówka w kasetach w groszach
+        public long getCash() {
+            return cash;
+        }
+
+        // automaty, w których brakuje co najmniej jednego produktu
+        public int getMachinesWithEmptySku() {
+            return machinesWithEmptySku;
+        }
+    }
+
+    public FleetInventory(int machineCount, int skuCount) {
+        this.machineCount = machineCount;
+        this.skuCount = skuCount;
+        this.stock = new int[machineCount * skuCount];
+        this.prices = new int[machineCount * skuCount];
+        this.coinBox = new int[machineCount * Coins.COUNT];
+    }
+
+    public int getMachineCount() {
+        return machineCount;
+    }
+
+    public int getSkuCount() {
+        return skuCount;
+    }
+
+    public int getStock(int machine, int sku) {
+        return stock[index(machine, sku)];
+    }
+
+    public int getPrice(int machine, int sku) {
+        return prices[index(machine, sku)];
+    }
+
+    public void setPrice(int machine, int sku, int price) {
+        prices[index(machine, sku)] = price;
+    }
+
+    // ta sama cena produktu we wszystkich automatach
+    public void setPriceEverywhere(int sku, int price) {
+        for (int i = sku; i < prices.length; i += skuCount) {
+            prices[i] = price;
+        }
+    }
+
+    // suma towaru w automacie
+    public int totalStock(int machine) {
+        int total = 0;
+        for (int i = machine * skuCount; i < (machine + 1) * skuCount; i++) {
+            total += stock[i];
+        }
+        return total;
+    }
+
+    // Partia dostaw jako równoległe tablice: machines[i] dostaje quantities[i] sztuk skus[i]
+    public void restock(int[] machines, int[] skus, int[] quantities) {
+        if (skus.length != machines.length || quantities.length != machines.length) {
+            throw new IllegalArgumentException("machines, skus i quantities muszą mieć tę samą długość");
+        }
+        for (int i = 0; i < machines.length; i++) {
+            stock[index(machines[i], skus[i])] += quantities[i];
+        }
+    }
+
+    // Uzupełnia produkt do poziomu level we wszystkich automatach, zwraca liczbę dołożonych sztuk
+    public long restockTo(int sku, int level) {
+        long added = 0;
+        for (int i = sku; i < stock.length; i += skuCount) {
+            if (stock[i] < level) {
+                added += level - stock[i];
+                stock[i] = level;
+            }
+        }
+        return added;
+    }
+
+    // Zasila kasetę automatu monetami do wydawania reszty
+    public void loadCoins(int machine, int value, int count) {
+        int coin = Coins.indexOf(value);
+        if (coin < 0) {
+            throw new IllegalArgumentException("nieznany nominał: " + value);
+        }
+        if (machine < 0 || machine >= machineCount) {
+            throw new IndexOutOfBoundsException("automat " + machine);
+        }
+        coinBox[machine * Coins.COUNT + coin] += count;
+    }
+
+    // Inwentaryzacja całej floty jednym przebiegiem po tablicach
+    public Audit audit() {
+        long[] units = new long[skuCount];
+        long value = 0;
+        int withEmpty = 0;
+        for (int machine = 0; machine < machineCount; machine++) {
+            boolean empty = false;
+            for (int sku = 0, i = machine * skuCount; sku < skuCount; sku++, i++) {
+                units[sku] += stock[i];
+                value += (long) stock[i] * prices[i];
+                empty |= stock[i] == 0;
+            }
+            if (empty) withEmpty++;
+        }
+        long cash = 0;
+        for (int i = 0; i < coinBox.length; i++) {
+            cash += (long) coinBox[i] * Coins.VALUES[i % Coins.COUNT];
+        }
+        return new Audit(units, value, cash, withEmpty);
+    }
+
+    boolean takeProduct(int machine, int sku) {
+        int i = index(machine, sku);
+        if (stock[i] == 0) return false;
+        stock[i]--;
+        return true;
+    }
+
+    void depositCoin(int machine, int coin) {
+        coinBox[machine * Coins.COUNT + coin]++;
+    }
+
+    boolean makeChange(int machine, int amount, int[] out) {
+        return Coins.makeChange(amount, coinBox, machine * Coins.COUNT, out);
+    }
+
+    void payOut(int machine, int[] coins) {
+        for (int coin = 0; coin < Coins.COUNT; coin++) {
+            coinBox[machine * Coins.COUNT + coin] -= coins[coin];
+        }
+    }
+
+    private int index(int machine, int sku) {
+        if (machine < 0 || machine >= machineCount || sku < 0 || sku >= skuCount) {
+            throw new IndexOutOfBoundsException("automat " + machine + ", produkt " + sku);
+        }
+        return machine * skuCount + sku;
+    }
+}
+
+// Automat z wieloma produktami: kredyt z wielu monet, wybór produktu i wydawanie reszty.
+// Stany i dozwolone zdarzenia z VendingMachineEngine, z dwiema różnicami: w HAS_COIN można
+// dorzucać monety, a wybór produktu ma warunki (jest towar, starcza kredytu, da się wydać resztę).
+// Towar, ceny i kaseta leżą we wspólnym FleetInventory, w wierszu tego automatu.
+public final class InventoryVendingMachine {
+    private final FleetInventory inventory;
+    private final int machine;
+    private final int[] change = new int[Coins.COUNT]; // bufor reszty, nadpisywany przy każdej wypłacie
+    private int state;
+    private int credit;
+    private int selected = -1;
+
+    public InventoryVendingMachine(FleetInventory inventory, int machine) {
+        this.inventory = inventory;
+        this.machine = machine;
+        this.state = inventory.totalStock(machine) > 0 ? VendingMachineEngine.NO_COIN : VendingMachineEngine.SOLD_OUT;
+    }
+
+    public boolean insertCoin(int value) {
+        int coin = Coins.indexOf(value);
+        if (coin < 0 || (state != VendingMachineEngine.NO_COIN && state != VendingMachineEngine.HAS_COIN)) {
+            return false;
+        }
+        inventory.depositCoin(machine, coin);
+        credit += value;
+        state = VendingMachineEngine.HAS_COIN;
+        return true;
+    }
+
+    // zwraca cały kredyt; monety do wydania w getChange()
+    public boolean ejectCoin() {
+        if (VendingMachineEngine.next(state, VendingMachineEngine.EJECT_COIN) == VendingMachineEngine.REJECTED) return false;
+        if (!inventory.makeChange(machine, credit, change)) return false;
+        inventory.payOut(machine, change);
+        credit = 0;
+        state = VendingMachineEngine.NO_COIN;
+        return true;
+    }
+
+    public boolean selectProduct(int sku) {
+        if (VendingMachineEngine.next(state, VendingMachineEngine.SELECT_PRODUCT) == VendingMachineEngine.REJECTED) return false;
+        int price = inventory.getPrice(machine, sku);
+        if (inventory.getStock(machine, sku) == 0 || credit < price) return false;
+        // resztę wyliczamy przed sprzedażą - po wydaniu towaru nie ma już odwrotu;
+        // w stanie SOLD nic poza dispense() nie zabiera monet z kasety, więc ta reszta jest aktualna
+        if (!inventory.makeChange(machine, credit - price, change)) return false;
+        selected = sku;
+        state = VendingMachineEngine.SOLD;
+        return true;
+    }
+
+    // wydaje wybrany produkt i resztę wyliczoną przy wyborze (w getChange())
+    public boolean dispense() {
+        if (VendingMachineEngine.next(state, VendingMachineEngine.DISPENSE) == VendingMachineEngine.REJECTED) return false;
+        inventory.takeProduct(machine, selected);
+        inventory.payOut(machine, change);
+        credit = 0;
+        selected = -1;
+        state = inventory.totalStock(machine) > 0 ? VendingMachineEngine.NO_COIN : VendingMachineEngine.SOLD_OUT;
+        return true;
+    }
+
+    // po uzupełnieniu magazynu pusty automat znowu przyjmuje monety
+    public void refresh() {
+        if (state == VendingMachineEngine.SOLD_OUT && inventory.totalStock(machine) > 0) {
+            state = VendingMachineEngine.NO_COIN;
+        }
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public int getCredit() {
+        return credit;
+    }
+
+    // liczby monet (wg Coins.VALUES) z ostatniej wypłaty
+    public int[] getChange() {
+        return change;
+    }
+}
+
+// Rejestrator przejść o małym narzucie
+// - każdy wątek ma własny bufor cykliczny (jeden pisarz, jeden czytelnik), więc record() nie
+//   bierze blokady ani nie alokuje: zapis dwóch long-ów i lazySet licznika
+// - rekord: [automat (32 bity) | z (8) | zdarzenie (8) | do (8)] + nanoTime, 16 bajtów w pliku
+// - osobny wątek co drainMillis zrzuca bufory do pliku binarnego przez FileChannel
+// - pełny bufor nie blokuje automatu - rekord jest pomijany i liczony w getDroppedCount()
+// - nieudany zapis nie przesuwa bufora - rekordy czekają na następny zrzut, a pierwszy błąd
+//   rzuca close()
+public class TransitionRecorder implements AutoCloseable {
+    static final int RECORD_BYTES = 16;
+    private static final int REJECTED_CODE = 0xFF;
+
+    private final int ringCapacity;
+    private final List<Ring> rings = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Ring> localRing;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(4096 * RECORD_BYTES);
+    private final Thread drainer;
+    private volatile boolean open = true;
+    private IOException failure; // pierwszy błąd wątku zrzutu
+
+    public TransitionRecorder(Path file, int ringCapacity, long drainMillis) throws IOException {
+        if (Integer.bitCount(ringCapacity) != 1) {
+            throw new IllegalArgumentException("pojemność bufora musi być potęgą dwójki: " + ringCapacity);
+        }
+        this.ringCapacity = ringCapacity;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.localRing = ThreadLocal.withInitial(() -> {
+            Ring ring = new Ring(this.ringCapacity);
+            rings.add(ring);
+            return ring;
+        });
+        this.drainer = new Thread(() -> {
+            while (open) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(drainMillis));
+                drainQuietly();
+            }
+        }, "transition-recorder-drain");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    public void record(int machine, int from, int event, int to) {
+        long packed = ((long) machine << 32) | (from << 16) | (event << 8) | (to & REJECTED_CODE);
+        localRing.get().offer(packed, System.nanoTime());
+    }
+
+    // Obserwator dla pojedynczego CompiledVendingMachine o danym numerze
+    public VendingMachineEngine.Listener listener(int machine) {
+        return new VendingMachineEngine.Listener() {
+            @Override
+            public void onTransition(int from, int event, int to) {
+                record(machine, from, event, to);
+            }
+
+            @Override
+            public void onRejected(int state, int event) {
+                record(machine, state, event, VendingMachineEngine.REJECTED);
+            }
+        };
+    }
+
+    public long getDroppedCount() {
+        long dropped = 0;
+        for (Ring ring : rings) {
+            dropped += ring.dropped;
+        }
+        return dropped;
+    }
+
+    // Przenosi zawartość wszystkich buforów do pliku. Sloty wracają do pisarza dopiero po
+    // udanym zapisie, więc po błędzie następny zrzut zapisze te same rekordy jeszcze raz.
+    public synchronized void drain() throws IOException {
+        int perWrite = buffer.capacity() / RECORD_BYTES;
+        for (Ring ring : rings) {
+            long read = ring.read.get();
+            long written = ring.written.get();
+            while (read < written) {
+                long end = Math.min(written, read + perWrite);
+                for (long i = read; i < end; i++) {
+                    int index = (int) i & ring.mask;
+                    buffer.putLong(ring.packed[index]).putLong(ring.times[index]);
+                }
+                writeBuffer();
+                read = end;
+                ring.read.lazySet(read);
+            }
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        long start = channel.position();
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            // częściowy zapis zostanie nadpisany przy ponownej próbie, zamiast zostać w pliku
+            try {
+                channel.position(start);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (IOException e) {
+            // następna próba przy kolejnym zrzucie; bufory w tym czasie mogą gubić rekordy
+            if (failure == null) failure = e;
+        }
+    }
+
+    // Rzuca pierwszy błąd zapisu, także z wcześniejszych zrzutów w tle
+    @Override
+    public void close() throws IOException {
+        open = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            drain();
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+            else failure.addSuppressed(e);
+        } finally {
+            channel.close();
+        }
+        if (failure != null) throw failure;
+    }
+
+    static int machineOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    static int fromOf(long packed) {
+        return (int) (packed >>> 16) & 0xFF;
+    }
+
+    static int eventOf(long packed) {
+        return (int) (packed >>> 8) & 0xFF;
+    }
+
+    static int toOf(long packed) {
+        int to = (int) packed & REJECTED_CODE;
+        return to == REJECTED_CODE ? VendingMachineEngine.REJECTED : to;
+    }
+
+    private static final class Ring {
+        final long[] packed;
+        final long[] times;
+        final int mask;
+        final AtomicLong written = new AtomicLong(); // pisze tylko wątek właściciel
+        final AtomicLong read = new AtomicLong();    // pisze tylko wątek zrzutu
+        long dropped;
+
+        Ring(int capacity) {
+            packed = new long[capacity];
+            times = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        void offer(long record, long time) {
+            long w = written.get();
+            if (w - read.get() == packed.length) {
+                dropped++;
+                return;
+            }
+            int index = (int) w & mask;
+            packed[index] = record;
+            times[index] = time;
+            written.lazySet(w + 1);
+        }
+    }
+}
+
+// Profil automatów z pliku TransitionRecorder
+// - macierz przejść: ile razy stan "z" przeszedł w stan "do"
+// - czas przebywania w stanie: od wejścia do stanu do następnego przejścia tego samego automatu,
+//   histogram w przedziałach potęg dwójki nanosekund
+// - odrzucone zdarzenia: jaka część wszystkich zdarzeń w danym stanie to odrzucone zdarzenie
+//   danego typu (tablica przejść jest deterministyczna, więc sam stosunek do prób tej pary
+//   zawsze wynosiłby 0 albo 100%)
+// Rekordy jednego automatu pochodzą z jednego wątku (jeden pisarz), więc w pliku są po kolei.
+public class TransitionProfile {
+    private static final int BUCKETS = 64;
+
+    private final long[][] transitions = new long[VendingMachineEngine.STATE_COUNT][VendingMachineEngine.STATE_COUNT];
+    private final long[][] attempts = new long[VendingMachineEngine.STATE_COUNT][VendingMachineEngine.EVENT_COUNT];
+    private final long[][] rejected = new long[VendingMachineEngine.STATE_COUNT][VendingMachineEngine.EVENT_COUNT];
+    private final long[][] dwell = new long[VendingMachineEngine.STATE_COUNT][BUCKETS];
+    private long[] enteredAt = new long[1024]; // czas wejścia do bieżącego stanu, 0 = nieznany
+
+    public static TransitionProfile read(Path file) throws IOException {
+        TransitionProfile profile = new TransitionProfile();
+        ByteBuffer buffer = ByteBuffer.allocate(4096 * TransitionRecorder.RECORD_BYTES);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                if (buffer.remaining() < TransitionRecorder.RECORD_BYTES) break; // niepełny rekord na końcu
+                while (buffer.remaining() >= TransitionRecorder.RECORD_BYTES) {
+                    profile.add(buffer.getLong(), buffer.getLong());
+                }
+                buffer.compact();
+            }
+        }
+        return profile;
+    }
+
+    private void add(long packed, long time) {
+        int machine = TransitionRecorder.machineOf(packed);
+        int from = TransitionRecorder.fromOf(packed);
+        int event = TransitionRecorder.eventOf(packed);
+        int to = TransitionRecorder.toOf(packed);
+
+        attempts[from][event]++;
+        if (to == VendingMachineEngine.REJECTED) {
+            rejected[from][event]++;
+            return;
+        }
+        transitions[from][to]++;
+
+        if (machine >= enteredAt.length) {
+            enteredAt = Arrays.copyOf(enteredAt, Math.max(machine + 1, enteredAt.length * 2));
+        }
+        if (enteredAt[machine] != 0) {
+            dwell[from][bucket(time - enteredAt[machine])]++;
+        }
+        enteredAt[machine] = time;
+    }
+
+    // przedział k obejmuje czasy [2^(k-1), 2^k) ns
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    public long getTransitionCount(int from, int to) {
+        return transitions[from][to];
+    }
+
+    public double getRejectedRate(int state, int event) {
+        long inState = 0;
+        for (long count : attempts[state]) {
+            inState += count;
+        }
+        return inState == 0 ? 0 : (double) rejected[state][event] / inState;
+    }
+
+    public double getRejectedRate() {
+        long total = 0;
+        long totalRejected = 0;
+        for (int state = 0; state < VendingMachineEngine.STATE_COUNT; state++) {
+            for (int event = 0; event < VendingMachineEngine.EVENT_COUNT; event++) {
+                total += attempts[state][event];
+                totalRejected += rejected[state][event];
+            }
+        }
+        return total == 0 ? 0 : (double) totalRejected / total;
+    }
+
+    public long[] getDwellHistogram(int state) {
+        return dwell[state].clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder("macierz przejść (z -> do):\n");
+        for (int from = 0; from < VendingMachineEngine.STATE_COUNT; from++) {
+            report.append(String.format("%-10s", VendingMachineEngine.stateName(from)));
+            for (int to = 0; to < VendingMachineEngine.STATE_COUNT; to++) {
+                report.append(String.format(" %10d", transitions[from][to]));
+            }
+            report.append('\n');
+        }
+        report.append(String.format("odrzucone zdarzenia (%.1f%% wszystkich):%n", 100 * getRejectedRate()));
+        for (int state = 0; state < VendingMachineEngine.STATE_COUNT; state++) {
+            for (int event = 0; event < VendingMachineEngine.EVENT_COUNT; event++) {
+                if (rejected[state][event] == 0) continue;
+                report.append(String.format("  %-10s %-15s %6.1f%% (%d)%n", VendingMachineEngine.stateName(state),
+                        VendingMachineEngine.eventName(event), 100 * getRejectedRate(state, event), rejected[state][event]));
+            }
+        }
+        report.append("czas w stanie (przedział: do 2^k ns):\n");
+        for (int state = 0; state < VendingMachineEngine.STATE_COUNT; state++) {
+            report.append(String.format("  %-10s", VendingMachineEngine.stateName(state)));
+            for (int k = 0; k < BUCKETS; k++) {
+                if (dwell[state][k] > 0) report.append(" 2^").append(k).append(':').append(dwell[state][k]);
+            }
+            report.append('\n');
+        }
+        return report.toString();
+    }
+}
+
 // Przykład użycia
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         VendingMachine machine = new VendingMachine();
 
         // Symulacja użycia automatu
@@ -187,5 +1289,63 @@ public class Main {
         machine.insertCoin();
         machine.selectProduct();
         machine.dispense();
+
+        System.out.println("\n=== Test 5: Skompilowany automat ===");
+        TransitionLog log = new TransitionLog(16);
+        CompiledVendingMachine compiled = new CompiledVendingMachine(2, log);
+        compiled.fire(VendingMachineEngine.DISPENSE);
+        compiled.fire(VendingMachineEngine.INSERT_COIN);
+        compiled.fire(VendingMachineEngine.SELECT_PRODUCT);
+        compiled.fire(VendingMachineEngine.DISPENSE);
+        compiled.fire(VendingMachineEngine.INSERT_COIN);
+        compiled.fire(VendingMachineEngine.SELECT_PRODUCT);
+        compiled.fire(VendingMachineEngine.DISPENSE);
+        compiled.fire(VendingMachineEngine.INSERT_COIN);
+        log.print();
+
+        System.out.println("\n=== Test 6: Flota automatów ===");
+        VendingFleet fleet = new VendingFleet(1000, 4, 1, 1024);
+        for (int id = 0; id < 1000; id++) {
+            fleet.submit(id, VendingMachineEngine.INSERT_COIN);
+            fleet.submit(id, VendingMachineEngine.SELECT_PRODUCT);
+            fleet.submit(id, VendingMachineEngine.DISPENSE);
+        }
+        fleet.close();
+        System.out.println("automat 7: " + VendingMachineEngine.stateName(fleet.getState(7)) + ", przetworzono " + fleet.getProcessedCount());
+
+        System.out.println("\n=== Test 7: Wiele produktów i reszta ===");
+        FleetInventory inventory = new FleetInventory(1000, 3);
+        inventory.setPriceEverywhere(0, 250);
+        inventory.setPriceEverywhere(1, 380);
+        inventory.setPriceEverywhere(2, 120);
+        for (int sku = 0; sku < 3; sku++) {
+            inventory.restockTo(sku, 5);
+        }
+        inventory.loadCoins(0, 20, 10);
+        inventory.loadCoins(0, 50, 2);
+        InventoryVendingMachine vending = new InventoryVendingMachine(inventory, 0);
+        vending.insertCoin(200);
+        vending.insertCoin(200);
+        vending.insertCoin(50);
+        vending.selectProduct(1);
+        vending.dispense();
+        System.out.println("reszta: " + Arrays.toString(vending.getChange()) + " dla nominałów " + Arrays.toString(Coins.VALUES));
+
+        inventory.restock(new int[]{0, 1, 2}, new int[]{2, 2, 2}, new int[]{10, 10, 10});
+        FleetInventory.Audit audit = inventory.audit();
+        System.out.println("sztuk na produkt: " + Arrays.toString(audit.getUnitsPerSku())
+                + ", wartość towaru: " + audit.getStockValue() + " gr, gotówka: " + audit.getCash() + " gr");
+
+        System.out.println("\n=== Test 8: Profil przejść ===");
+        Path trace = Files.createTempFile("vending", ".trace");
+        try (TransitionRecorder recorder = new TransitionRecorder(trace, 1 << 16, 10)) {
+            VendingFleet traced = new VendingFleet(100, 2, 3, 1024, recorder);
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < 10_000; i++) {
+                traced.submit(random.nextInt(100), random.nextInt(VendingMachineEngine.EVENT_COUNT));
+            }
+            traced.close();
+        }
+        System.out.print(TransitionProfile.read(trace));
     }
 } 
\ No newline at end of file